@@ -0,0 +1,231 @@
+package com.luv2code.springboot.cruddemo.cache;
+
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.ScheduledTrip;
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import com.luv2code.springboot.cruddemo.util.TransactionUtil;
+import com.luv2code.springboot.cruddemo.util.TripScheduleUtil;
+import com.luv2code.springboot.cruddemo.util.TripScheduleUtil.Conflict;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Each driver's ACCEPTED and ONGOING trips as intervals sorted by start time,
+ * so schedule conflicts are checked without a database round trip.
+ *
+ * A driver's schedule is loaded from the database the first time it is
+ * needed and then kept up to date by {@link #tripScheduled} and
+ * {@link #tripRemoved}, which apply once the surrounding transaction commits.
+ * Every change bumps a per-driver generation; a load that raced with a
+ * change is thrown away instead of caching a stale schedule.
+ *
+ * Reads never take a second pooled connection while the caller's
+ * transaction holds one, since enough callers doing that at once would wait
+ * on each other until the pool times out. Inside a transaction a missing
+ * schedule is read on the caller's connection, and the copy that gets cached
+ * is loaded afterwards on a loader thread outside any transaction.
+ */
+@Component
+public class DriverScheduleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverScheduleIndex.class);
+
+    private static final List<TripStatus> SCHEDULED = List.of(TripStatus.ACCEPTED, TripStatus.ONGOING);
+
+    private final TripDAO tripDAO;
+    // only used where no transaction is active; not read-only, which could send it to a lagging replica
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService loader;
+    private final Set<Long> pendingLoads = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Schedule> schedules = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public DriverScheduleIndex(TripDAO tripDAO, PlatformTransactionManager transactionManager) {
+        this.tripDAO = tripDAO;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("schedule-loader-");
+        threadFactory.setDaemon(true);
+        this.loader = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    /**
+     * @return how {@code [start, end]} clashes with the driver's trips under the
+     *         {@link TripScheduleUtil} rules; an overlap is reported over a gap
+     */
+    public Conflict conflict(long driverId, LocalDateTime start, LocalDateTime end) {
+        return schedule(driverId).conflict(start, end);
+    }
+
+    public Conflict conflict(long driverId, Trip trip) {
+        return conflict(driverId, trip.getTripDate(), TripScheduleUtil.endOf(trip));
+    }
+
+    /**
+     * Like {@link #conflict(long, Trip)}, but against the driver's trips as
+     * committed right now rather than the cached schedule. Call it in the
+     * booking's transaction while holding the driver's row lock: the trips are
+     * read with a locking read on the caller's connection, so no other booking
+     * for the driver can commit between this check and the caller's own
+     * commit. The trip being booked is left out. Once the caller commits, what
+     * was read replaces the cached schedule.
+     */
+    public Conflict recheckConflict(long driverId, Trip trip) {
+        Schedule current = toSchedule(tripDAO.lockScheduledTrips(driverId, SCHEDULED, trip.getId()));
+        // registered before the caller's tripScheduled, so the booked trip is added to this copy
+        TransactionUtil.afterCommit(() -> schedules.put(driverId, current));
+        Conflict conflict = current.conflict(trip.getTripDate(), TripScheduleUtil.endOf(trip));
+        // whatever is cached let this booking through, so it is missing a trip
+        if (conflict != Conflict.NONE)
+            schedules.remove(driverId);
+        return conflict;
+    }
+
+    public void tripScheduled(long driverId, Trip trip) {
+        long tripId = trip.getId();
+        LocalDateTime start = trip.getTripDate();
+        LocalDateTime end = TripScheduleUtil.endOf(trip);
+        TransactionUtil.afterCommit(() -> {
+            generations.merge(driverId, 1L, Long::sum);
+            Schedule schedule = schedules.get(driverId);
+            if (schedule != null)
+                schedule.add(new Interval(tripId, start, end));
+        });
+    }
+
+    public void tripRemoved(long driverId, long tripId) {
+        TransactionUtil.afterCommit(() -> {
+            generations.merge(driverId, 1L, Long::sum);
+            Schedule schedule = schedules.get(driverId);
+            if (schedule != null)
+                schedule.remove(tripId);
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    private Schedule schedule(long driverId) {
+        Schedule schedule = schedules.get(driverId);
+        if (schedule != null)
+            return schedule;
+        if (!TransactionSynchronizationManager.isActualTransactionActive())
+            return load(driverId);
+        // the caller's REPEATABLE READ snapshot can predate changes whose generation bump we already saw,
+        // so this read answers the caller but is not cached
+        loadLater(driverId);
+        return toSchedule(tripDAO.findScheduledTrips(driverId, SCHEDULED));
+    }
+
+    private void loadLater(long driverId) {
+        if (!pendingLoads.add(driverId))
+            return;
+        try {
+            loader.execute(() -> {
+                try {
+                    load(driverId);
+                } catch (RuntimeException e) {
+                    log.debug("Could not load the schedule of driver {}", driverId, e);
+                } finally {
+                    pendingLoads.remove(driverId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingLoads.remove(driverId);
+        }
+    }
+
+    // outside any transaction, so the read starts a snapshot of its own after the generation is taken
+    private Schedule load(long driverId) {
+        long generation = generations.getOrDefault(driverId, 0L);
+        Schedule schedule = readTransaction.execute(status ->
+                toSchedule(tripDAO.findScheduledTrips(driverId, SCHEDULED)));
+
+        Schedule existing = schedules.putIfAbsent(driverId, schedule);
+        if (existing != null)
+            return existing;
+        // a change committed while we were reading; the copy we just cached may miss it
+        if (generations.getOrDefault(driverId, 0L) != generation)
+            schedules.remove(driverId, schedule);
+        return schedule;
+    }
+
+    private static Schedule toSchedule(List<ScheduledTrip> trips) {
+        Schedule schedule = new Schedule();
+        for (ScheduledTrip trip : trips) {
+            schedule.add(new Interval(trip.getTripId(), trip.getTripDate(),
+                    TripScheduleUtil.endOf(trip.getTripDate(), trip.getEstimatedMinutes())));
+        }
+        return schedule;
+    }
+
+    private static class Interval {
+        final long tripId;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Interval(long tripId, LocalDateTime start, LocalDateTime end) {
+            this.tripId = tripId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static class Schedule {
+        private final TreeSet<Interval> byStart = new TreeSet<>(
+                Comparator.comparing((Interval interval) -> interval.start)
+                        .thenComparingLong(interval -> interval.tripId));
+        private final Map<Long, Interval> byTrip = new HashMap<>();
+        private long longestMinutes;
+
+        synchronized void add(Interval interval) {
+            remove(interval.tripId);
+            byStart.add(interval);
+            byTrip.put(interval.tripId, interval);
+            longestMinutes = Math.max(longestMinutes, Duration.between(interval.start, interval.end).toMinutes());
+        }
+
+        synchronized void remove(long tripId) {
+            Interval interval = byTrip.remove(tripId);
+            if (interval != null)
+                byStart.remove(interval);
+        }
+
+        // only trips starting in this window can be within the gap of [start, end]
+        synchronized Conflict conflict(LocalDateTime start, LocalDateTime end) {
+            Interval from = new Interval(Long.MIN_VALUE,
+                    start.minusMinutes(longestMinutes + TripScheduleUtil.MIN_GAP_MINUTES + 1), null);
+            Interval to = new Interval(Long.MAX_VALUE, end.plusMinutes(TripScheduleUtil.MIN_GAP_MINUTES + 1), null);
+            Conflict result = Conflict.NONE;
+            for (Interval existing : byStart.subSet(from, true, to, true)) {
+                Conflict conflict = TripScheduleUtil.conflict(start, end, existing.start, existing.end);
+                if (conflict == Conflict.OVERLAP)
+                    return conflict;
+                if (conflict == Conflict.GAP)
+                    result = conflict;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.luv2code.springboot.cruddemo.cache;
+
+import com.luv2code.springboot.cruddemo.config.EntityCacheConfig;
+import com.luv2code.springboot.cruddemo.dto.EntityCacheStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hit and miss counts of the second-level cache regions, from Hibernate's
+ * statistics. They count since startup and stay at zero unless
+ * {@code hibernate.generate_statistics} is on.
+ */
+@Component
+public class EntityCacheStats {
+
+    private final Statistics statistics;
+
+    public EntityCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<EntityCacheStatsDTO> stats() {
+        List<EntityCacheStatsDTO> stats = new ArrayList<>();
+        for (String region : EntityCacheConfig.ENTITY_REGIONS)
+            stats.add(toDTO(region, statistics.getDomainDataRegionStatistics(region)));
+        String queryRegion = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+        stats.add(toDTO(queryRegion, statistics.getQueryRegionStatistics(queryRegion)));
+        return stats;
+    }
+
+    private static EntityCacheStatsDTO toDTO(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null)
+            return new EntityCacheStatsDTO(region, 0, 0, 0);
+        return new EntityCacheStatsDTO(region, regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                regionStatistics.getPutCount());
+    }
+}
@@ -0,0 +1,168 @@
+package com.luv2code.springboot.cruddemo.cache;
+
+import com.luv2code.springboot.cruddemo.dto.GeocodeCacheStatsDTO;
+import com.luv2code.springboot.cruddemo.util.LocationNameUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of geocoding results with a per-entry time to live.
+ *
+ * Keys are normalized location names so that different spellings of the same
+ * pickup spot share one entry. When a snapshot file is configured the cache is
+ * written to disk on shutdown and reloaded on startup, so popular locations stay
+ * warm across restarts.
+ */
+@Component
+public class GeocodeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GeocodeCache.class);
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final String snapshotFile;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public GeocodeCache(@Value("${geocode.cache.max-size:5000}") int maxSize,
+            @Value("${geocode.cache.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${geocode.cache.snapshot-file:}") String snapshotFile) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMinutes * 60_000L;
+        this.snapshotFile = snapshotFile;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > GeocodeCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return cached {lat, lon} for the location, or null on a miss or an expired entry
+     */
+    public synchronized double[] get(String locationName) {
+        String key = LocationNameUtil.normalize(locationName);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return new double[] { entry.lat, entry.lon };
+    }
+
+    public synchronized void put(String locationName, double[] coordinates) {
+        String key = LocationNameUtil.normalize(locationName);
+        entries.put(key, new Entry(coordinates[0], coordinates[1], System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized GeocodeCacheStatsDTO stats() {
+        return new GeocodeCacheStatsDTO(hits, misses, evictions, expirations, entries.size(), maxSize);
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        if (snapshotFile.isBlank())
+            return;
+        Path path = Paths.get(snapshotFile);
+        if (!Files.exists(path))
+            return;
+
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            synchronized (this) {
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split("\t");
+                    if (parts.length != 4)
+                        continue;
+                    long expiresAt = Long.parseLong(parts[3]);
+                    if (expiresAt <= now)
+                        continue;
+                    entries.put(parts[0], new Entry(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), expiresAt));
+                    loaded++;
+                }
+            }
+            log.info("Loaded {} geocode cache entries from {}", loaded, path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load geocode cache snapshot from {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        GeocodeCacheStatsDTO stats = stats();
+        log.info("Geocode cache stats at shutdown: {} hits, {} misses, {} evictions, {} expirations",
+                stats.getHits(), stats.getMisses(), stats.getEvictions(), stats.getExpirations());
+        if (snapshotFile.isBlank())
+            return;
+        Path path = Paths.get(snapshotFile);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null)
+                Files.createDirectories(parent);
+            // write to a temp file first so a crash mid-write never leaves a truncated snapshot
+            Path tmp = Files.createTempFile(parent, "geocode-cache", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                synchronized (this) {
+                    for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                        writer.write(e.getKey() + "\t" + e.getValue().lat + "\t" + e.getValue().lon + "\t"
+                                + e.getValue().expiresAt);
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Could not write geocode cache snapshot to {}", path, e);
+        }
+    }
+
+    private static class Entry {
+        final double lat;
+        final double lon;
+        final long expiresAt;
+
+        Entry(double lat, double lon, long expiresAt) {
+            this.lat = lat;
+            this.lon = lon;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
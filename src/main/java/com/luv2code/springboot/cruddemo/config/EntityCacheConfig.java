@@ -0,0 +1,70 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine caches behind Hibernate's second-level cache, one region per
+ * cached entity plus the query cache.
+ *
+ * Entity regions are bounded by {@code entity.cache.max-size} and expire
+ * after {@code entity.cache.ttl-minutes}; the expiry only limits how long a
+ * change made outside Hibernate, straight in the database, can go unnoticed.
+ * The update timestamps region is never evicted, as Hibernate requires, or
+ * cached query results could be served after their tables changed.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    // the region names used in the @Cache annotations of the entities
+    public static final List<String> ENTITY_REGIONS = List.of("drivers", "customers", "cars");
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${entity.cache.max-size:10000}") long maxSize,
+            @Value("${entity.cache.ttl-minutes:10}") long ttlMinutes,
+            @Value("${entity.cache.query-max-size:5000}") long queryMaxSize) {
+        // a manager of its own rather than the provider's default, which is shared by every context in the JVM
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("entity-cache-" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        for (String region : ENTITY_REGIONS)
+            cacheManager.createCache(region, configuration(maxSize, ttlMinutes));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                configuration(queryMaxSize, ttlMinutes));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                configuration(0, 0));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    // 0 leaves the size or the lifetime unbounded; entries are Hibernate's own immutable cache entries,
+    // so they are stored by reference rather than copied on every read
+    private static CaffeineConfiguration<Object, Object> configuration(long maxSize, long ttlMinutes) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        if (maxSize > 0)
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (ttlMinutes > 0)
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+        return configuration;
+    }
+}
@@ -0,0 +1,25 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class QuoteExecutorConfig {
+
+    // bounded pool and queue; when both are full the calling request thread runs the quote itself
+    @Bean(name = "quoteExecutor", destroyMethod = "shutdown")
+    public ExecutorService quoteExecutor(@Value("${trip.quotes.threads:8}") int threads,
+            @Value("${trip.quotes.queue-capacity:200}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("quote-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,88 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import com.luv2code.springboot.cruddemo.datasource.ReplicaAwareJpaDialect;
+import com.luv2code.springboot.cruddemo.datasource.ReplicaLagMonitor;
+import com.luv2code.springboot.cruddemo.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas for {@link com.luv2code.springboot.cruddemo.datasource.ReplicaSafe}
+ * methods, enabled by listing their JDBC URLs in {@code datasource.replica.urls}.
+ *
+ * The primary keeps its spring.datasource settings. The application's
+ * DataSource becomes a router in front of the primary and the replicas, so
+ * Hibernate, Flyway and JdbcTemplate need no changes: only read-only
+ * transactions are sent to a replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties,
+            @Value("${datasource.replica.urls}") List<String> urls,
+            @Value("${datasource.replica.username:}") String username,
+            @Value("${datasource.replica.password:}") String password,
+            @Value("${datasource.replica.max-pool-size:10}") int maxPoolSize,
+            @Value("${datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+            @Value("${datasource.replica.lag-check-interval-ms:1000}") long checkIntervalMillis,
+            @Value("${datasource.replica.connect-timeout-ms:1000}") long connectTimeoutMillis,
+            @Value("${datasource.replica.socket-timeout-ms:10000}") long socketTimeoutMillis) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(maxPoolSize);
+            replica.setReadOnly(true);
+            // an unreachable or hung replica fails fast instead of blocking its lag check and the reads on it
+            replica.setConnectionTimeout(connectTimeoutMillis);
+            replica.addDataSourceProperty("connectTimeout", connectTimeoutMillis);
+            replica.addDataSourceProperty("socketTimeout", socketTimeoutMillis);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaLagMonitor(replicas, maxLagSeconds, checkIntervalMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor));
+    }
+
+    // must be in place before the entity manager factory hands its dialect to the transaction manager
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factoryBean)
+                    factoryBean.setJpaDialect(new ReplicaAwareJpaDialect());
+                return bean;
+            }
+        };
+    }
+}
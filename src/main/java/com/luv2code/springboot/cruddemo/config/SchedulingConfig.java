@@ -0,0 +1,14 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} jobs on Spring Boot's task scheduler, whose pool
+ * is sized by {@code spring.task.scheduling.pool.size}. The default pool has a
+ * single thread, which would make every job wait behind the slowest one.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
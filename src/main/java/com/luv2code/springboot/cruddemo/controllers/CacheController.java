@@ -0,0 +1,26 @@
+package com.luv2code.springboot.cruddemo.controllers;
+
+import com.luv2code.springboot.cruddemo.cache.EntityCacheStats;
+import com.luv2code.springboot.cruddemo.dto.EntityCacheStatsDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final EntityCacheStats entityCacheStats;
+
+    public CacheController(EntityCacheStats entityCacheStats) {
+        this.entityCacheStats = entityCacheStats;
+    }
+
+    @GetMapping("/entities/stats")
+    public ResponseEntity<List<EntityCacheStatsDTO>> getEntityCacheStats() {
+        return ResponseEntity.ok(entityCacheStats.stats());
+    }
+}
@@ -1,8 +1,12 @@
 package com.luv2code.springboot.cruddemo.controllers;
 
 import com.luv2code.springboot.cruddemo.dto.DriverDTO;
+import com.luv2code.springboot.cruddemo.dto.DriverLocationDTO;
+import com.luv2code.springboot.cruddemo.dto.DriverLocationStatsDTO;
+import com.luv2code.springboot.cruddemo.dto.NearbyDriverDTO;
 import com.luv2code.springboot.cruddemo.entites.Driver;
 import com.luv2code.springboot.cruddemo.mapper.DriverMapper;
+import com.luv2code.springboot.cruddemo.service.DriverLocationService;
 import com.luv2code.springboot.cruddemo.service.DriverService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -18,10 +22,13 @@ import java.util.List;
 public class DriverController {
     private final DriverService driverService;
     private final ImageService imageService;
+    private final DriverLocationService driverLocationService;
 
-    public DriverController(DriverService driverService, ImageService imageService) {
+    public DriverController(DriverService driverService, ImageService imageService,
+            DriverLocationService driverLocationService) {
         this.driverService = driverService;
         this.imageService = imageService;
+        this.driverLocationService = driverLocationService;
     }
 
     @PostMapping("/register")
@@ -70,4 +77,24 @@ public class DriverController {
             return new ResponseEntity<>("Failed to upload image: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    @PostMapping("/{driverId}/location")
+    public ResponseEntity<?> updateLocation(@PathVariable long driverId, @RequestBody DriverLocationDTO location) {
+        driverLocationService.updateLocation(driverId, location.getLat(), location.getLon(),
+                location.getRecordedAt());
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/location/stats")
+    public ResponseEntity<DriverLocationStatsDTO> getLocationStats() {
+        return ResponseEntity.ok(driverLocationService.stats());
+    }
+
+    // available drivers around a point, closest first; radius and limit are capped by drivers.nearby.*
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyDriverDTO>> findNearby(@RequestParam Double lat, @RequestParam Double lon,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Double radiusMeters) {
+        return ResponseEntity.ok(driverLocationService.findNearby(lat, lon, limit, radiusMeters));
+    }
 }
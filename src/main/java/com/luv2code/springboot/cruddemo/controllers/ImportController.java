@@ -0,0 +1,37 @@
+package com.luv2code.springboot.cruddemo.controllers;
+
+import com.luv2code.springboot.cruddemo.dto.TripImportResultDTO;
+import com.luv2code.springboot.cruddemo.service.TripImportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final TripImportService tripImportService;
+
+    public ImportController(TripImportService tripImportService) {
+        this.tripImportService = tripImportService;
+    }
+
+    /**
+     * Import historical trips and payments
+     *
+     * The body is newline-delimited JSON, one trip per line, read as it
+     * arrives. Lines that cannot be imported are skipped and listed in the
+     * result with the reason.
+     *
+     * @param body NDJSON lines shaped like TripImportRow
+     * @return ResponseEntity with the import counts and HTTP 200 OK
+     */
+    @PostMapping(value = "/trips", consumes = { "application/x-ndjson", "text/plain" })
+    public ResponseEntity<TripImportResultDTO> importTrips(InputStream body) throws IOException {
+        return ResponseEntity.ok(tripImportService.importTrips(body));
+    }
+}
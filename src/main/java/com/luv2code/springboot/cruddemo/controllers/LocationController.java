@@ -0,0 +1,24 @@
+package com.luv2code.springboot.cruddemo.controllers;
+
+import com.luv2code.springboot.cruddemo.cache.GeocodeCache;
+import com.luv2code.springboot.cruddemo.dto.GeocodeCacheStatsDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/locations")
+public class LocationController {
+
+    private final GeocodeCache geocodeCache;
+
+    public LocationController(GeocodeCache geocodeCache) {
+        this.geocodeCache = geocodeCache;
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<GeocodeCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(geocodeCache.stats());
+    }
+}
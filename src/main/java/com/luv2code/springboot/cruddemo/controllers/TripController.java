@@ -1,14 +1,23 @@
 package com.luv2code.springboot.cruddemo.controllers;
 
+import com.luv2code.springboot.cruddemo.dto.DriverCandidateDTO;
+import com.luv2code.springboot.cruddemo.dto.QuoteRequestDTO;
+import com.luv2code.springboot.cruddemo.dto.QuoteResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.RequestedTripsQuery;
 import com.luv2code.springboot.cruddemo.dto.TripDTO;
 import com.luv2code.springboot.cruddemo.entites.PaymentMethod;
 import com.luv2code.springboot.cruddemo.entites.Trip;
 import com.luv2code.springboot.cruddemo.mapper.TripMapper;
+import com.luv2code.springboot.cruddemo.service.DriverMatchingService;
 import com.luv2code.springboot.cruddemo.service.TripService;
+import com.luv2code.springboot.cruddemo.service.TripStreamService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -35,6 +44,12 @@ public class TripController {
     @Autowired
     private TripService tripService;
 
+    @Autowired
+    private DriverMatchingService driverMatchingService;
+
+    @Autowired
+    private TripStreamService tripStreamService;
+
     /**
      * Book a new trip
      * 
@@ -60,6 +75,24 @@ public class TripController {
         return ResponseEntity.ok(tripDTO);
     }
 
+    /**
+     * Quote many routes at once
+     * 
+     * Returns the fare, estimated minutes and distance for each
+     * (pickup, destination, isPremium, hasChildSeat) entry without booking
+     * anything. Routes are quoted in parallel; a route that cannot be resolved
+     * gets an error message instead of a quote and does not fail the others.
+     * 
+     * @param quoteRequests Routes to quote, in the order the results are returned
+     * @return ResponseEntity with list of QuoteResponseDTOs and HTTP 200 OK
+     * @throws InvalidQuoteRequestException if the list is empty, too large or has null entries
+     */
+    @PostMapping("/quotes")
+    public ResponseEntity<?> quoteRoutes(@Valid @RequestBody List<@NotNull @Valid QuoteRequestDTO> quoteRequests) {
+        List<QuoteResponseDTO> quotes = tripService.quoteRoutes(quoteRequests);
+        return ResponseEntity.ok(quotes);
+    }
+
     /**
      * Driver accepts a trip
      * 
@@ -89,22 +122,75 @@ public class TripController {
     }
 
     /**
-     * Get all trips with REQUESTED status
+     * Stream changes to the requested trips (server-sent events)
      * 
-     * Returns all trips that are waiting for a driver to accept them.
-     * Useful for drivers to see available trips in their area.
+     * Instead of polling /requested, a driver loads it once and then applies
+     * the events from this stream: CREATED (with the trip), TAKEN, CANCELLED
+     * and EXPIRED (with the trip id). Events are sent once the change is
+     * committed; a comment line is sent periodically to keep the connection open.
      * 
-     * @return ResponseEntity with list of TripDTOs and HTTP 200 OK
+     * @param lat          Optional latitude of the driver's area
+     * @param lon          Optional longitude of the driver's area
+     * @param radiusMeters Only trips picked up within this distance of lat/lon
+     * @return event stream (text/event-stream)
+     * @throws InvalidLocationException if the area is incomplete or out of range
+     * @throws TripStreamFullException  if too many drivers are connected
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRequestedTrips(@RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radiusMeters) {
+        return tripStreamService.subscribe(lat, lon, radiusMeters);
+    }
+
+    /**
+     * Get trips with REQUESTED status, one page at a time
+     * 
+     * Returns trips waiting for a driver to accept them, ordered by trip date
+     * then id. Useful for drivers to see available trips in their area.
+     * 
+     * Paging: pass the tripDate and id of the last trip received as afterDate
+     * and afterId to get the next page; an empty list means there are no more.
+     * Area: either lat, lon and radiusMeters, or minLat, minLon, maxLat and
+     * maxLon, matched against the pickup point.
+     * 
+     * @param query cursor, area and page size (limit), all optional
+     * @return ResponseEntity with list of TripDTOs (possibly empty) and HTTP 200 OK
+     * @throws InvalidTripQueryException if the cursor or limit is invalid, or both areas are given
+     * @throws InvalidLocationException  if the area is incomplete or out of range
      */
     @GetMapping("/requested")
-    public ResponseEntity<?> getRequestedTrips() {
-        List<Trip> trips = tripService.findRequestedTrips();
+    public ResponseEntity<?> getRequestedTrips(RequestedTripsQuery query) {
+        List<Trip> trips = tripService.findRequestedTrips(query);
         List<TripDTO> tripDTOs = trips.stream()
                 .map(TripMapper::tripDTO)
                 .toList();
         return ResponseEntity.ok(tripDTOs);
     }
 
+    /**
+     * Rank drivers for a requested trip
+     * 
+     * Returns the available drivers near the pickup who could take the trip,
+     * best first. Drivers without a car, or whose accepted trips the new trip
+     * would overlap or leave less than the minimum gap to, are left out.
+     * Ranking weighs estimated minutes to the pickup against driver rating.
+     * 
+     * @param tripId ID of the requested trip
+     * @param limit  Maximum number of candidates to return (default 5)
+     * @return ResponseEntity with list of DriverCandidateDTOs and HTTP 200 OK
+     * @throws InvalidTripQueryException if the limit is not positive
+     * @throws TripNotFoundException     if trip ID is invalid
+     * @throws TripNotRequestedException if the trip is no longer waiting for a
+     *                                   driver
+     */
+    @GetMapping("/{tripId}/candidates")
+    public ResponseEntity<?> getDriverCandidates(@PathVariable long tripId,
+            @RequestParam(defaultValue = "5") int limit) {
+        List<DriverCandidateDTO> candidates = driverMatchingService.rankCandidates(tripId, limit);
+        return ResponseEntity.ok(candidates);
+    }
+
     /**
      * Driver starts a trip
      * 
@@ -118,6 +204,8 @@ public class TripController {
      * @throws DriverNotFoundException           if driver ID is invalid
      * @throws TripNotFoundException             if trip ID is invalid
      * @throws StartBeforeScheduledTimeException if starting before scheduled time
+     * @throws CustomerOrDriverNotAssigned       if the trip is not assigned to the driver
+     * @throws TripStatusConflictException       if the trip is not ACCEPTED
      */
     @PostMapping("/start/{tripId}")
     public ResponseEntity<?> driverStartTrip(@RequestParam Long driverId, @PathVariable long tripId) {
@@ -137,8 +225,10 @@ public class TripController {
      * @param driverId ID of the driver ending the trip
      * @param tripId   ID of the trip to end
      * @return ResponseEntity with TripDTO and HTTP 200 OK
-     * @throws DriverNotFoundException if driver ID is invalid
-     * @throws TripNotFoundException   if trip ID is invalid
+     * @throws DriverNotFoundException      if driver ID is invalid
+     * @throws TripNotFoundException        if trip ID is invalid
+     * @throws CustomerOrDriverNotAssigned  if the trip is not assigned to the driver
+     * @throws TripStatusConflictException  if the trip is not ACCEPTED or ONGOING
      */
     @PostMapping("/end/{tripId}")
     public ResponseEntity<?> driverEndTrip(@RequestParam Long driverId, @PathVariable long tripId) {
@@ -157,8 +247,10 @@ public class TripController {
      * @param customerId ID of the customer cancelling the trip
      * @param tripId     ID of the trip to cancel
      * @return ResponseEntity with TripDTO and HTTP 200 OK
-     * @throws CustomerNotFoundException if customer ID is invalid
-     * @throws TripNotFoundException     if trip ID is invalid
+     * @throws CustomerNotFoundException   if customer ID is invalid
+     * @throws TripNotFoundException       if trip ID is invalid
+     * @throws CustomerOrDriverNotAssigned if the trip belongs to another customer
+     * @throws TripStatusConflictException if the trip has already finished or been cancelled
      */
     @PostMapping("/cancel/customer/{tripId}")
     public ResponseEntity<?> canceledByCustomer(@RequestParam Long customerId, @PathVariable long tripId) {
@@ -177,8 +269,10 @@ public class TripController {
      * @param driverId ID of the driver cancelling the trip
      * @param tripId   ID of the trip to cancel
      * @return ResponseEntity with TripDTO and HTTP 200 OK
-     * @throws DriverNotFoundException if driver ID is invalid
-     * @throws TripNotFoundException   if trip ID is invalid
+     * @throws DriverNotFoundException      if driver ID is invalid
+     * @throws TripNotFoundException        if trip ID is invalid
+     * @throws CustomerOrDriverNotAssigned  if the trip is not assigned to the driver
+     * @throws TripStatusConflictException  if the trip is not ACCEPTED or ONGOING
      */
     @PostMapping("/cancel/driver/{tripId}")
     public ResponseEntity<?> canceledByDriver(@RequestParam Long driverId, @PathVariable long tripId) {
@@ -200,10 +294,7 @@ public class TripController {
      */
     @GetMapping("/customer/trips/{customerId}")
     public ResponseEntity<?> getCustomerTrips(@PathVariable long customerId) {
-        List<Trip> trips = tripService.getCustomerTrips(customerId);
-        List<TripDTO> tripDTOs = trips.stream()
-                .map(TripMapper::tripDTO)
-                .toList();
+        List<TripDTO> tripDTOs = tripService.getCustomerTrips(customerId);
         return ResponseEntity.ok(tripDTOs);
     }
 
@@ -220,7 +311,24 @@ public class TripController {
      */
     @GetMapping("/driver/trips/active/{driverId}")
     public ResponseEntity<?> getDriverActiveTrips(@PathVariable long driverId) {
-        List<Trip> trips = tripService.getDriverActiveTrips(driverId);
+        List<TripDTO> tripDTOs = tripService.getDriverActiveTrips(driverId);
+        return ResponseEntity.ok(tripDTOs);
+    }
+
+    /**
+     * Get requested trips a driver can take
+     * 
+     * Returns the REQUESTED trips that fit around the driver's accepted and
+     * ongoing trips, so accepting any of them would not be refused for a
+     * schedule overlap or a too-short gap. Empty while the driver is unavailable.
+     * 
+     * @param driverId ID of the driver
+     * @return ResponseEntity with list of TripDTOs and HTTP 200 OK
+     * @throws DriverNotFoundException if driver ID is invalid
+     */
+    @GetMapping("/driver/trips/takeable/{driverId}")
+    public ResponseEntity<?> getDriverTakeableTrips(@PathVariable long driverId) {
+        List<Trip> trips = tripService.findTakeableTrips(driverId);
         List<TripDTO> tripDTOs = trips.stream()
                 .map(TripMapper::tripDTO)
                 .toList();
@@ -240,10 +348,7 @@ public class TripController {
      */
     @GetMapping("/customer/previous-trips")
     public ResponseEntity<?> getCustomerPreviousTrips(@RequestParam long customerId) {
-        List<Trip> trips = tripService.getCustomerPreviousTrips(customerId);
-        List<TripDTO> tripDTOs = trips.stream()
-                .map(TripMapper::tripDTO)
-                .toList();
+        List<TripDTO> tripDTOs = tripService.getCustomerPreviousTrips(customerId);
         return ResponseEntity.ok(tripDTOs);
     }
 
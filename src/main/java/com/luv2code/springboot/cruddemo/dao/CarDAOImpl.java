@@ -4,6 +4,7 @@ import com.luv2code.springboot.cruddemo.entites.Car;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
@@ -58,6 +59,8 @@ public class CarDAOImpl implements CarDAO {
             TypedQuery<Car> query = entityManager.createQuery(
                     "SELECT c FROM Car c WHERE c.driver.id = :driverId", Car.class);
             query.setParameter("driverId", driverId);
+            // invalidated by Hibernate whenever the cars table changes
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
             return query.getSingleResult();
         } catch (RuntimeException e) {
             return null;
@@ -1,5 +1,6 @@
 package com.luv2code.springboot.cruddemo.dao;
 
+import com.luv2code.springboot.cruddemo.dto.DriverCapacityRow;
 import com.luv2code.springboot.cruddemo.entites.Driver;
 import org.springframework.stereotype.Repository;
 
@@ -7,7 +8,6 @@ import java.util.List;
 
 @Repository
 public interface DriverDAO {
-    public Driver findFirstAvailableDriver();
     public  Driver save(Driver driver);
     public  Driver findByEmail(String email);
     public  Driver findByPhoneNumber(String phone);
@@ -15,4 +15,9 @@ public interface DriverDAO {
     public  Driver findById(long id);
     public Driver findByLicenseNumber(String licenseNumber );
     public List<Driver> findDriversWithoutCar();
+    public List<Driver> findAvailableWithCarByIds(List<Long> ids);
+    public boolean reserveTripSlot(Driver driver);
+    public boolean releaseTripSlot(Driver driver);
+    public List<DriverCapacityRow> findCapacityRows(long afterId, int limit);
+    public boolean correctCapacity(DriverCapacityRow row);
 }
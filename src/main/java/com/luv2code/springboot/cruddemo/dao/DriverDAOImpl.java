@@ -1,31 +1,40 @@
 package com.luv2code.springboot.cruddemo.dao;
 
 import com.luv2code.springboot.cruddemo.entites.Customer;
+import com.luv2code.springboot.cruddemo.dto.DriverCapacityRow;
 import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import jakarta.persistence.CacheStoreMode;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class DriverDAOImpl implements DriverDAO{
+    // the capacity updates are native SQL tied to a query space of their own: a JPQL bulk update on Driver
+    // would make Hibernate drop every driver from the second-level cache, so only the updated one is locked
+    private static final String CAPACITY_QUERY_SPACE = "driver_capacity";
+    private static final Map<String, Object> BYPASS_CACHE =
+            Map.of("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+
     private  final EntityManager entityManager;
 @Autowired
     public DriverDAOImpl(EntityManager entityManager) {
         this.entityManager = entityManager;
     }
 
-    @Override
-    public Driver findFirstAvailableDriver() {
-            return entityManager.createQuery(
-                    "SELECT d FROM Driver d WHERE d.available = true", Driver.class)
-                    .setMaxResults(1).getSingleResult();
-    }
-
     @Override
     public Driver save(Driver driver) {
         return  entityManager.merge(driver);
@@ -76,4 +85,104 @@ public class DriverDAOImpl implements DriverDAO{
         TypedQuery<Driver> query = entityManager.createQuery(jpql, Driver.class);
         return query.getResultList();
     }
+
+    // the drivers among ids that acceptTrip would let take a trip: available and with a car
+    @Override
+    public List<Driver> findAvailableWithCarByIds(List<Long> ids) {
+        if (ids.isEmpty())
+            return List.of();
+        String jpql = """
+                SELECT d FROM Driver d
+                WHERE d.id IN :ids
+                AND d.available = true
+                AND EXISTS (SELECT c FROM Car c WHERE c.driver = d)
+                """;
+        TypedQuery<Driver> query = entityManager.createQuery(jpql, Driver.class);
+        query.setParameter("ids", ids);
+        return query.getResultList();
+    }
+
+    // one statement, bounded in the WHERE clause, so concurrent accepts cannot push a driver past the limit;
+    // the SET list also reads the old count on MySQL, which applies assignments left to right
+    @Override
+    public boolean reserveTripSlot(Driver driver) {
+        int updated = capacityUpdate(driver.getId(),
+                        "UPDATE drivers " +
+                                "SET available = CASE WHEN current_booked_trips + 1 < :max THEN true ELSE false END, " +
+                                "current_booked_trips = current_booked_trips + 1 " +
+                                "WHERE driver_id = :id AND available = true AND current_booked_trips < :max"
+                )
+                .setParameter("max", Driver.MAX_BOOKED_TRIPS)
+                .setParameter("id", driver.getId())
+                .executeUpdate();
+        if (updated == 0)
+            return false;
+        entityManager.refresh(driver, BYPASS_CACHE);
+        return true;
+    }
+
+    @Override
+    public boolean releaseTripSlot(Driver driver) {
+        int updated = capacityUpdate(driver.getId(),
+                        "UPDATE drivers " +
+                                "SET available = true, current_booked_trips = current_booked_trips - 1 " +
+                                "WHERE driver_id = :id AND current_booked_trips > 0"
+                )
+                .setParameter("id", driver.getId())
+                .executeUpdate();
+        if (updated == 0)
+            return false;
+        entityManager.refresh(driver, BYPASS_CACHE);
+        return true;
+    }
+
+    // stored counters next to the count of trips they should match, read in one statement
+    @Override
+    public List<DriverCapacityRow> findCapacityRows(long afterId, int limit) {
+        String jpql = """
+                SELECT new com.luv2code.springboot.cruddemo.dto.DriverCapacityRow(
+                    d.id, d.currentBookedTrips, d.available,
+                    (SELECT COUNT(t) FROM Trip t WHERE t.driver = d AND t.status IN :scheduled))
+                FROM Driver d
+                WHERE d.id > :afterId
+                ORDER BY d.id
+                """;
+        TypedQuery<DriverCapacityRow> query = entityManager.createQuery(jpql, DriverCapacityRow.class);
+        query.setParameter("scheduled", List.of(TripStatus.ACCEPTED, TripStatus.ONGOING));
+        query.setParameter("afterId", afterId);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    // only applies if the driver is still as it was read, so it never undoes an accept made in between
+    @Transactional
+    @Override
+    public boolean correctCapacity(DriverCapacityRow row) {
+        int updated = capacityUpdate(row.getDriverId(),
+                        "UPDATE drivers SET current_booked_trips = :expected, available = :expectedAvailable " +
+                                "WHERE driver_id = :id AND current_booked_trips = :booked AND available = :available"
+                )
+                .setParameter("expected", row.getExpectedBookedTrips())
+                .setParameter("expectedAvailable", row.isExpectedAvailable())
+                .setParameter("id", row.getDriverId())
+                .setParameter("booked", row.getBookedTrips())
+                .setParameter("available", row.isAvailable())
+                .executeUpdate();
+        return updated == 1;
+    }
+
+    // the driver's cache entry stays soft-locked from before the update until the transaction ends: nothing can
+    // be read from it meanwhile, and a transaction that started before the unlock cannot put the old row back
+    private Query capacityUpdate(long driverId, String sql) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Driver.class);
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        Object key = cacheAccess.generateCacheKey(driverId, persister, session.getFactory(),
+                session.getTenantIdentifier());
+        SoftLock lock = cacheAccess.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completed) -> cacheAccess.unlockItem(completed, key, lock));
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(CAPACITY_QUERY_SPACE);
+    }
 }
@@ -0,0 +1,12 @@
+package com.luv2code.springboot.cruddemo.dao;
+
+import com.luv2code.springboot.cruddemo.geo.LocationPing;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DriverLocationDAO {
+    public void upsertPositions(List<LocationPing> positions);
+    public void insertBreadcrumbs(List<LocationPing> pings);
+}
@@ -0,0 +1,61 @@
+package com.luv2code.springboot.cruddemo.dao;
+
+import com.luv2code.springboot.cruddemo.geo.LocationPing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC batches for driver positions; these tables see far too many
+ * writes to go through the persistence context row by row.
+ */
+@Repository
+public class DriverLocationDAOImpl implements DriverLocationDAO {
+
+    // a row is only overwritten by a newer report; recorded_at is assigned last so the
+    // comparisons above it still see the stored value
+    private static final String UPSERT_POSITION =
+            "INSERT INTO driver_positions (driver_id, lat, lon, recorded_at) VALUES (?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "lat = IF(VALUES(recorded_at) >= recorded_at, VALUES(lat), lat), " +
+                    "lon = IF(VALUES(recorded_at) >= recorded_at, VALUES(lon), lon), " +
+                    "recorded_at = GREATEST(recorded_at, VALUES(recorded_at))";
+
+    private static final String INSERT_BREADCRUMB =
+            "INSERT INTO driver_location_pings (driver_id, lat, lon, recorded_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public DriverLocationDAOImpl(JdbcTemplate jdbcTemplate,
+            @Value("${drivers.location.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void upsertPositions(List<LocationPing> positions) {
+        write(UPSERT_POSITION, positions);
+    }
+
+    @Override
+    public void insertBreadcrumbs(List<LocationPing> pings) {
+        write(INSERT_BREADCRUMB, pings);
+    }
+
+    private void write(String sql, List<LocationPing> pings) {
+        if (pings.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate(sql, pings, batchSize, (ps, ping) -> {
+            ps.setLong(1, ping.getDriverId());
+            ps.setDouble(2, ping.getLat());
+            ps.setDouble(3, ping.getLon());
+            ps.setTimestamp(4, new Timestamp(ping.getRecordedAtMillis()));
+        });
+    }
+}
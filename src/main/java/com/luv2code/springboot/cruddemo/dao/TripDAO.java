@@ -1,9 +1,15 @@
 package com.luv2code.springboot.cruddemo.dao;
 
+import com.luv2code.springboot.cruddemo.dto.ScheduledTrip;
+import com.luv2code.springboot.cruddemo.dto.TripDTO;
+import com.luv2code.springboot.cruddemo.dto.TripDeadline;
+import com.luv2code.springboot.cruddemo.dto.TripSpeedSample;
+import com.luv2code.springboot.cruddemo.entites.Driver;
 import com.luv2code.springboot.cruddemo.entites.Trip;
 import com.luv2code.springboot.cruddemo.entites.TripStatus;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,8 +17,20 @@ public interface TripDAO {
     public Trip save(Trip trip);
     List<Trip> findByStatus(TripStatus status);
     public Trip findById(long id);
-    public List<Trip> getCustomerTrips(long customerId);
+    public List<TripDTO> getCustomerTrips(long customerId);
     public List<Trip> findByDriverIdAndStatusIn(Long driverId, List<TripStatus> statuses);
-    public int markExpiredTrips();
-    public List<Trip> customerPreviousTrips(long customerId);
+    public List<ScheduledTrip> findScheduledTrips(long driverId, List<TripStatus> statuses);
+    public List<ScheduledTrip> lockScheduledTrips(long driverId, List<TripStatus> statuses, long exceptTripId);
+    public List<TripDTO> getDriverTrips(long driverId, List<TripStatus> statuses);
+    public List<Trip> findByIds(List<Long> ids);
+    public boolean expireTrip(long tripId, TripStatus expectedStatus);
+    public List<TripDeadline> findPendingDeadlines(long afterId, int limit);
+    public List<Trip> findRequestedPage(LocalDateTime afterDate, Long afterId, double[] pickupBox, int limit);
+    public boolean claimRequestedTrip(long tripId, Driver driver);
+    public boolean updateStatus(long tripId, TripStatus expectedStatus, TripStatus newStatus);
+    public boolean updateAssignedStatus(long tripId, long driverId, TripStatus expectedStatus, TripStatus newStatus);
+    public boolean unassignTrip(long tripId, long driverId, TripStatus expectedStatus);
+    public List<TripDTO> customerPreviousTrips(long customerId);
+    public List<Trip> findRequestedStartingBetween(LocalDateTime from, LocalDateTime to, int limit);
+    public List<TripSpeedSample> findCompletedSpeedSamples(LocalDateTime completedAfter, long afterId, int limit);
 }
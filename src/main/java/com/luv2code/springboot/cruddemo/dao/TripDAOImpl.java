@@ -1,8 +1,14 @@
 package com.luv2code.springboot.cruddemo.dao;
 
+import com.luv2code.springboot.cruddemo.dto.ScheduledTrip;
+import com.luv2code.springboot.cruddemo.dto.TripDTO;
+import com.luv2code.springboot.cruddemo.dto.TripDeadline;
+import com.luv2code.springboot.cruddemo.dto.TripSpeedSample;
+import com.luv2code.springboot.cruddemo.entites.Driver;
 import com.luv2code.springboot.cruddemo.entites.Trip;
 import com.luv2code.springboot.cruddemo.entites.TripStatus;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +19,24 @@ import java.util.List;
 
 @Repository
 public class TripDAOImpl implements TripDAO{
+    // the trip row with only the customer and driver columns a TripDTO exposes, in one statement
+    private static final String TRIP_DTO_SELECT =
+            "SELECT new com.luv2code.springboot.cruddemo.dto.TripDTO(t.id, t.pickupLocation, t.destination, " +
+                    "t.createdAt, t.tripDate, t.status, t.fare, t.estimatedMinutes, t.rated, " +
+                    "c.id, c.firstName, c.lastName, c.email, c.phone, c.imageUrl, " +
+                    "d.id, d.firstName, d.lastName, d.email, d.phone, d.imageUrl, d.rating, d.licenseNumber, " +
+                    "d.available, d.currentBookedTrips) " +
+                    "FROM Trip t JOIN t.customer c LEFT JOIN t.driver d ";
+
+    // customer and driver are eager, so entity reads fetch them in the same statement instead of one select each
+    private static final String TRIP_FETCH_SELECT =
+            "SELECT t FROM Trip t JOIN FETCH t.customer LEFT JOIN FETCH t.driver ";
+
+    // ids start at 1, so an exceptTripId of 0 excludes nothing
+    private static final String SCHEDULED_TRIP_SELECT =
+            "SELECT new com.luv2code.springboot.cruddemo.dto.ScheduledTrip(t.id, t.tripDate, t.estimatedMinutes) " +
+                    "FROM Trip t WHERE t.driver.id = :driverId AND t.status IN :statuses AND t.id <> :exceptTripId";
+
     private  final EntityManager entityManager;
      @Autowired
     public TripDAOImpl(EntityManager entityManager) {
@@ -27,7 +51,7 @@ public class TripDAOImpl implements TripDAO{
     @Override
     public List<Trip> findByStatus(TripStatus tripStatus) {
         TypedQuery<Trip> typedQuery = entityManager.createQuery(
-                "SELECT t FROM Trip t WHERE t.status = :status", Trip.class
+                TRIP_FETCH_SELECT + "WHERE t.status = :status", Trip.class
         );
         typedQuery.setParameter("status", tripStatus);
         return typedQuery.getResultList();}
@@ -38,47 +62,209 @@ public class TripDAOImpl implements TripDAO{
     }
 
     @Override
-    public List<Trip> getCustomerTrips(long customerId) {
-        TypedQuery<Trip> typedQuery = entityManager.createQuery(
-                "SELECT t FROM Trip t WHERE t.customer.id = :customerId",Trip.class
+    public List<TripDTO> getCustomerTrips(long customerId) {
+        TypedQuery<TripDTO> typedQuery = entityManager.createQuery(
+                TRIP_DTO_SELECT + "WHERE c.id = :customerId", TripDTO.class
         );
         typedQuery.setParameter("customerId",customerId);
         return typedQuery.getResultList();
     }
     public List<Trip> findByDriverIdAndStatusIn(Long driverId, List<TripStatus> statuses) {
         TypedQuery<Trip> query = entityManager.createQuery(
-                "SELECT t FROM Trip t WHERE t.driver.id = :driverId AND t.status IN :statuses",
+                TRIP_FETCH_SELECT + "WHERE t.driver.id = :driverId AND t.status IN :statuses",
                 Trip.class
         );
         query.setParameter("driverId", driverId);
         query.setParameter("statuses", statuses);
         return query.getResultList();
     }
-            @Override
-            @Transactional
-    public int markExpiredTrips() {
+
+    @Override
+    public List<ScheduledTrip> findScheduledTrips(long driverId, List<TripStatus> statuses) {
+        return entityManager.createQuery(SCHEDULED_TRIP_SELECT, ScheduledTrip.class)
+                .setParameter("driverId", driverId)
+                .setParameter("statuses", statuses)
+                .setParameter("exceptTripId", 0L)
+                .getResultList();
+    }
+
+    // a locking read sees the latest committed rows rather than the transaction's snapshot
+    @Override
+    public List<ScheduledTrip> lockScheduledTrips(long driverId, List<TripStatus> statuses, long exceptTripId) {
+        return entityManager.createQuery(SCHEDULED_TRIP_SELECT, ScheduledTrip.class)
+                .setParameter("driverId", driverId)
+                .setParameter("statuses", statuses)
+                .setParameter("exceptTripId", exceptTripId)
+                .setLockMode(LockModeType.PESSIMISTIC_READ)
+                .getResultList();
+    }
+
+    @Override
+    public List<TripDTO> getDriverTrips(long driverId, List<TripStatus> statuses) {
+        TypedQuery<TripDTO> query = entityManager.createQuery(
+                TRIP_DTO_SELECT + "WHERE d.id = :driverId AND t.status IN :statuses", TripDTO.class
+        );
+        query.setParameter("driverId", driverId);
+        query.setParameter("statuses", statuses);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Trip> findByIds(List<Long> ids) {
+        if (ids.isEmpty())
+            return List.of();
+        TypedQuery<Trip> query = entityManager.createQuery(TRIP_FETCH_SELECT + "WHERE t.id IN :ids", Trip.class);
+        query.setParameter("ids", ids);
+        return query.getResultList();
+    }
+
+    // guarded by the status the caller saw, so a trip accepted or cancelled in the meantime is left alone
+    @Override
+    public boolean expireTrip(long tripId, TripStatus expectedStatus) {
         return entityManager.createQuery(
-                        "UPDATE Trip t " +
-                                "SET t.status = :expiredStatus " +
-                                "WHERE t.tripDate < :now " +
-                                "AND t.status <> :completedStatus " +
-                                "AND t.status <> :expiredStatus"
+                        "UPDATE Trip t SET t.status = :expired WHERE t.id = :tripId AND t.status = :expected"
                 )
-                .setParameter("expiredStatus", TripStatus.EXPIRED)
-                .setParameter("completedStatus", TripStatus.COMPLETED)
-                .setParameter("now", LocalDateTime.now())
-                .executeUpdate();
+                .setParameter("expired", TripStatus.EXPIRED)
+                .setParameter("tripId", tripId)
+                .setParameter("expected", expectedStatus)
+                .executeUpdate() == 1;
     }
 
     @Override
-    public List<Trip> customerPreviousTrips(long customerId) {
-        TypedQuery<Trip> typedQuery = entityManager.createQuery(
-                "SELECT t FROM Trip t WHERE t.customer.id = :customerId AND t.status IN (:statuses)",
-                Trip.class
+    public List<TripDeadline> findPendingDeadlines(long afterId, int limit) {
+        TypedQuery<TripDeadline> query = entityManager.createQuery(
+                "SELECT new com.luv2code.springboot.cruddemo.dto.TripDeadline(t.id, t.status, t.tripDate) " +
+                        "FROM Trip t WHERE t.status IN :statuses AND t.id > :afterId ORDER BY t.id",
+                TripDeadline.class
+        );
+        query.setParameter("statuses", List.of(TripStatus.REQUESTED, TripStatus.ACCEPTED));
+        query.setParameter("afterId", afterId);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    // keyset over (tripDate, id); pickupBox is {minLat, minLon, maxLat, maxLon}, or null for anywhere
+    @Override
+    public List<Trip> findRequestedPage(LocalDateTime afterDate, Long afterId, double[] pickupBox, int limit) {
+        StringBuilder jpql = new StringBuilder(TRIP_FETCH_SELECT + "WHERE t.status = :status");
+        if (afterDate != null)
+            jpql.append(" AND (t.tripDate > :afterDate OR (t.tripDate = :afterDate AND t.id > :afterId))");
+        if (pickupBox != null)
+            jpql.append(" AND t.pickupLat BETWEEN :minLat AND :maxLat AND t.pickupLon BETWEEN :minLon AND :maxLon");
+        jpql.append(" ORDER BY t.tripDate, t.id");
+
+        TypedQuery<Trip> query = entityManager.createQuery(jpql.toString(), Trip.class);
+        query.setParameter("status", TripStatus.REQUESTED);
+        if (afterDate != null) {
+            query.setParameter("afterDate", afterDate);
+            query.setParameter("afterId", afterId);
+        }
+        if (pickupBox != null) {
+            query.setParameter("minLat", pickupBox[0]);
+            query.setParameter("minLon", pickupBox[1]);
+            query.setParameter("maxLat", pickupBox[2]);
+            query.setParameter("maxLon", pickupBox[3]);
+        }
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    // compare-and-set on the status: of any number of concurrent claims exactly one updates the row
+    @Override
+    public boolean claimRequestedTrip(long tripId, Driver driver) {
+        return entityManager.createQuery(
+                        "UPDATE Trip t SET t.driver = :driver, t.status = :accepted " +
+                                "WHERE t.id = :tripId AND t.status = :requested"
+                )
+                .setParameter("driver", driver)
+                .setParameter("accepted", TripStatus.ACCEPTED)
+                .setParameter("tripId", tripId)
+                .setParameter("requested", TripStatus.REQUESTED)
+                .executeUpdate() == 1;
+    }
+
+    // the status and driver conditions make these compare-and-set: only one caller can move a trip out of a status
+    @Override
+    public boolean updateStatus(long tripId, TripStatus expectedStatus, TripStatus newStatus) {
+        return entityManager.createQuery(
+                        "UPDATE Trip t SET t.status = :next WHERE t.id = :tripId AND t.status = :expected"
+                )
+                .setParameter("next", newStatus)
+                .setParameter("tripId", tripId)
+                .setParameter("expected", expectedStatus)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    public boolean updateAssignedStatus(long tripId, long driverId, TripStatus expectedStatus, TripStatus newStatus) {
+        return entityManager.createQuery(
+                        "UPDATE Trip t SET t.status = :next " +
+                                "WHERE t.id = :tripId AND t.status = :expected AND t.driver.id = :driverId"
+                )
+                .setParameter("next", newStatus)
+                .setParameter("tripId", tripId)
+                .setParameter("expected", expectedStatus)
+                .setParameter("driverId", driverId)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    public boolean unassignTrip(long tripId, long driverId, TripStatus expectedStatus) {
+        return entityManager.createQuery(
+                        "UPDATE Trip t SET t.driver = null, t.status = :requested " +
+                                "WHERE t.id = :tripId AND t.status = :expected AND t.driver.id = :driverId"
+                )
+                .setParameter("requested", TripStatus.REQUESTED)
+                .setParameter("tripId", tripId)
+                .setParameter("expected", expectedStatus)
+                .setParameter("driverId", driverId)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    public List<TripDTO> customerPreviousTrips(long customerId) {
+        TypedQuery<TripDTO> typedQuery = entityManager.createQuery(
+                TRIP_DTO_SELECT + "WHERE c.id = :customerId AND t.status IN (:statuses)",
+                TripDTO.class
         );
         typedQuery.setParameter("customerId", customerId);
         typedQuery.setParameter("statuses", List.of(TripStatus.EXPIRED, TripStatus.COMPLETED , TripStatus.CANCELLED_BY_CUSTOMER));
         return typedQuery.getResultList();
     }
 
+    @Override
+    public List<Trip> findRequestedStartingBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        TypedQuery<Trip> query = entityManager.createQuery(
+                TRIP_FETCH_SELECT + "WHERE t.status = :status AND t.tripDate > :from AND t.tripDate <= :to " +
+                        "ORDER BY t.tripDate",
+                Trip.class
+        );
+        query.setParameter("status", TripStatus.REQUESTED);
+        query.setParameter("from", from);
+        query.setParameter("to", to);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    // keyset over (completedAt, id), in completion order
+    @Override
+    public List<TripSpeedSample> findCompletedSpeedSamples(LocalDateTime completedAfter, long afterId, int limit) {
+        TypedQuery<TripSpeedSample> query = entityManager.createQuery(
+                "SELECT new com.luv2code.springboot.cruddemo.dto.TripSpeedSample(" +
+                        "t.id, t.pickupLat, t.pickupLon, t.distanceKm, t.startedAt, t.completedAt) " +
+                        "FROM Trip t " +
+                        "WHERE t.status = :status " +
+                        "AND t.startedAt IS NOT NULL AND t.completedAt IS NOT NULL " +
+                        "AND t.distanceKm IS NOT NULL AND t.pickupLat IS NOT NULL AND t.pickupLon IS NOT NULL " +
+                        "AND (t.completedAt > :completedAfter OR (t.completedAt = :completedAfter AND t.id > :afterId)) " +
+                        "ORDER BY t.completedAt, t.id",
+                TripSpeedSample.class
+        );
+        query.setParameter("status", TripStatus.COMPLETED);
+        query.setParameter("completedAfter", completedAfter);
+        query.setParameter("afterId", afterId);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
 }
@@ -0,0 +1,16 @@
+package com.luv2code.springboot.cruddemo.dao;
+
+import com.luv2code.springboot.cruddemo.dto.TripImportRow;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface TripImportDAO {
+    public Set<Long> findExistingCustomerIds(Collection<Long> ids);
+    public Set<Long> findExistingDriverIds(Collection<Long> ids);
+    public List<Long> insertTrips(List<TripImportRow> rows);
+    public int insertPayments(List<Long> tripIds, List<TripImportRow> rows);
+}
@@ -0,0 +1,134 @@
+package com.luv2code.springboot.cruddemo.dao;
+
+import com.luv2code.springboot.cruddemo.dto.TripImportRow;
+import com.luv2code.springboot.cruddemo.entites.PaymentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JDBC batches for trip imports. Trip ids come from AUTO_INCREMENT,
+ * which stops Hibernate from batching inserts, so the trips of a chunk go
+ * out as one batch and their ids are read back from the generated keys to
+ * link the payments. With {@code rewriteBatchedStatements=true} on the
+ * datasource URL the driver sends each batch as multi-row INSERTs.
+ */
+@Repository
+public class TripImportDAOImpl implements TripImportDAO {
+
+    private static final String INSERT_TRIP =
+            "INSERT INTO trips (pickup_location, destination, trip_date, created_at, started_at, completed_at, " +
+                    "status, customer_id, driver_id, fare, estimated_minutes, distance_km, pickup_lat, " +
+                    "pickup_lon, is_premium, has_child_seat, rated) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PAYMENT =
+            "INSERT INTO payments (trip_id, amount, payment_method, payment_status, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    public TripImportDAOImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Set<Long> findExistingCustomerIds(Collection<Long> ids) {
+        return existingIds("SELECT customer_id FROM customers WHERE customer_id IN (:ids)", ids);
+    }
+
+    @Override
+    public Set<Long> findExistingDriverIds(Collection<Long> ids) {
+        return existingIds("SELECT driver_id FROM drivers WHERE driver_id IN (:ids)", ids);
+    }
+
+    private Set<Long> existingIds(String sql, Collection<Long> ids) {
+        if (ids.isEmpty())
+            return Set.of();
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(sql, Map.of("ids", ids), Long.class));
+    }
+
+    // ids in the order of rows
+    @Override
+    public List<Long> insertTrips(List<TripImportRow> rows) {
+        if (rows.isEmpty())
+            return List.of();
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_TRIP, Statement.RETURN_GENERATED_KEYS)) {
+                for (TripImportRow row : rows) {
+                    ps.setString(1, row.getPickupLocation());
+                    ps.setString(2, row.getDestination());
+                    ps.setTimestamp(3, Timestamp.valueOf(row.getTripDate()));
+                    ps.setTimestamp(4, timestamp(row.getCreatedAt() != null ? row.getCreatedAt() : row.getTripDate()));
+                    ps.setTimestamp(5, timestamp(row.getStartedAt()));
+                    ps.setTimestamp(6, timestamp(row.getCompletedAt()));
+                    ps.setString(7, row.getStatus().name());
+                    ps.setLong(8, row.getCustomerId());
+                    ps.setObject(9, row.getDriverId(), Types.BIGINT);
+                    ps.setObject(10, row.getFare(), Types.DOUBLE);
+                    ps.setObject(11, row.getEstimatedMinutes(), Types.INTEGER);
+                    ps.setObject(12, row.getDistanceKm(), Types.DOUBLE);
+                    ps.setObject(13, row.getPickupLat(), Types.DOUBLE);
+                    ps.setObject(14, row.getPickupLon(), Types.DOUBLE);
+                    ps.setBoolean(15, row.isPremium());
+                    ps.setBoolean(16, row.isHasChildSeat());
+                    ps.setBoolean(17, row.isRated());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Long> ids = new ArrayList<>(rows.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next())
+                        ids.add(keys.getLong(1));
+                }
+                if (ids.size() != rows.size())
+                    throw new IncorrectUpdateSemanticsDataAccessException(
+                            "Expected " + rows.size() + " generated trip ids but got " + ids.size());
+                return ids;
+            }
+        });
+    }
+
+    // payments for the rows that carry one; tripIds[i] is the id inserted for rows[i]
+    @Override
+    public int insertPayments(List<Long> tripIds, List<TripImportRow> rows) {
+        List<Object[]> payments = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            TripImportRow row = rows.get(i);
+            if (row.getPaymentAmount() == null)
+                continue;
+            LocalDateTime paidAt = row.getCompletedAt() != null ? row.getCompletedAt() : row.getTripDate();
+            PaymentStatus status = row.getPaymentStatus() != null ? row.getPaymentStatus() : PaymentStatus.PAID;
+            payments.add(new Object[] { tripIds.get(i), row.getPaymentAmount(), row.getPaymentMethod().name(),
+                    status.name(), Timestamp.valueOf(paidAt) });
+        }
+        if (payments.isEmpty())
+            return 0;
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT, payments);
+        return payments.size();
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
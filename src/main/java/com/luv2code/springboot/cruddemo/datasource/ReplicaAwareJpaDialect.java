@@ -0,0 +1,27 @@
+package com.luv2code.springboot.cruddemo.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Read-only transactions may be served by a replica that is behind the
+ * primary, so they read from the second-level cache but never put what they
+ * loaded into it, where transactions on the primary would pick it up.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (definition.isReadOnly())
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+        return transactionData;
+    }
+}
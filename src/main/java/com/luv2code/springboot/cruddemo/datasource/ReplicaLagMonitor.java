@@ -0,0 +1,152 @@
+package com.luv2code.springboot.cruddemo.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls every replica for how far it is behind the primary and keeps the list
+ * of replicas that read-only transactions may use.
+ *
+ * A replica is usable while its reported lag is at most
+ * {@code datasource.replica.max-lag-seconds}. One that cannot be reached, is
+ * not replicating or is further behind is skipped until a later check finds
+ * it caught up; with none usable, reads go to the primary. Replicas start out
+ * unusable until their first check. The replica user needs the REPLICATION
+ * CLIENT privilege to read the lag.
+ *
+ * Each replica is checked every {@code datasource.replica.lag-check-interval-ms}
+ * on a thread of its own, so a replica that hangs does not hold up the checks
+ * of the others or any scheduled job. A result older than
+ * {@value #STALE_AFTER_CHECKS} intervals no longer counts: a replica whose
+ * check is stuck is treated as unusable until a check completes again.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final int STALE_AFTER_CHECKS = 3;
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagSeconds;
+    private final long checkIntervalMillis;
+    private final long staleAfterNanos;
+    private final Map<String, Check> checks = new ConcurrentHashMap<>();
+    private volatile List<String> healthyReplicas = List.of();
+    private ScheduledExecutorService checkers;
+
+    // replicas in the order they are tried
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, long maxLagSeconds, long checkIntervalMillis) {
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMillis * STALE_AFTER_CHECKS);
+    }
+
+    public synchronized void start() {
+        if (checkers != null || replicas.isEmpty())
+            return;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-lag-");
+        threadFactory.setDaemon(true);
+        checkers = Executors.newScheduledThreadPool(replicas.size(), threadFactory);
+        replicas.forEach((name, dataSource) -> checkers.scheduleWithFixedDelay(() -> check(name, dataSource),
+                0, checkIntervalMillis, TimeUnit.MILLISECONDS));
+    }
+
+    // an exception escaping here would cancel the replica's schedule for good
+    private void check(String replica, DataSource dataSource) {
+        Long lag;
+        try {
+            lag = lagSeconds(dataSource);
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Could not read the lag of replica {}", replica, e);
+            lag = null;
+        }
+        record(replica, lag);
+    }
+
+    // lagSeconds is null when the lag is unknown
+    void record(String replica, Long lagSeconds) {
+        record(replica, lagSeconds, System.nanoTime());
+    }
+
+    synchronized void record(String replica, Long lagSeconds, long checkedAtNanos) {
+        boolean usable = lagSeconds != null && lagSeconds <= maxLagSeconds;
+        Check previous = checks.put(replica, new Check(usable, checkedAtNanos));
+        if (previous == null || previous.usable != usable) {
+            if (usable)
+                log.info("Replica {} is {} s behind, serving read-only transactions", replica, lagSeconds);
+            else
+                log.warn("Replica {} is {} behind, reading from the primary instead", replica,
+                        lagSeconds == null ? "an unknown time" : lagSeconds + " s");
+        }
+        healthyReplicas = replicas.keySet().stream()
+                .filter(name -> checks.containsKey(name) && checks.get(name).usable)
+                .toList();
+    }
+
+    public List<String> healthyReplicas() {
+        List<String> usable = healthyReplicas;
+        long now = System.nanoTime();
+        for (String replica : usable) {
+            if (isStale(replica, now))
+                return usable.stream().filter(name -> !isStale(name, now)).toList();
+        }
+        return usable;
+    }
+
+    private boolean isStale(String replica, long now) {
+        return now - checks.get(replica).checkedAtNanos > staleAfterNanos;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            if (checkers != null)
+                checkers.shutdownNow();
+        }
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable)
+                closeable.close();
+        }
+    }
+
+    // null when the server is not replicating; older servers only know the SLAVE spelling
+    private static Long lagSeconds(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                return status.next() ? nullableLong(status, "Seconds_Behind_Source") : null;
+            } catch (SQLSyntaxErrorException e) {
+                try (ResultSet status = statement.executeQuery("SHOW SLAVE STATUS")) {
+                    return status.next() ? nullableLong(status, "Seconds_Behind_Master") : null;
+                }
+            }
+        }
+    }
+
+    private record Check(boolean usable, long checkedAtNanos) {
+    }
+
+    private static Long nullableLong(ResultSet resultSet, String column) throws SQLException {
+        long value = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,25 @@
+package com.luv2code.springboot.cruddemo.datasource;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the method in a read-only transaction that may be served by a read
+ * replica, so it must not write and must tolerate data up to
+ * {@code datasource.replica.max-lag-seconds} old.
+ *
+ * Called from inside a read-write transaction it joins that transaction and
+ * reads from the primary. Without replicas configured it is a plain read-only
+ * transaction on the primary.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReplicaSafe {
+}
@@ -0,0 +1,201 @@
+package com.luv2code.springboot.cruddemo.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Maximum-benefit assignment of bidders (trips) to objects (drivers) over a
+ * sparse benefit matrix, by successive shortest augmenting paths as in
+ * Jonker-Volgenant.
+ *
+ * Edges of bidder {@code i} are {@code start[i] .. start[i + 1]} in the
+ * {@code objects} and {@code benefits} arrays. A bidder may stay unassigned;
+ * that is modelled as a private dummy object worth less than any real edge
+ * by the full benefit range, so a bidder is only left out when every object
+ * it could take is worth more to others by that much.
+ *
+ * Bidders are added one at a time. Each addition is a Dijkstra search over
+ * reduced costs, kept non-negative by object prices, for the cheapest way to
+ * free an object for the new bidder; it always succeeds because the bidder's
+ * own dummy is free. The result is exact for any benefits, and each bidder
+ * costs one search over the edges reachable from it, however many ties the
+ * benefits have.
+ */
+public class SparseAssignment {
+
+    private SparseAssignment() {
+    }
+
+    /**
+     * @return for each bidder the index of its object, or -1 if unassigned
+     */
+    public static int[] solve(int bidderCount, int objectCount, int[] start, int[] objects, long[] benefits) {
+        int[] assignment = new int[bidderCount];
+        Arrays.fill(assignment, -1);
+        if (bidderCount == 0)
+            return assignment;
+
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int e = 0; e < start[bidderCount]; e++) {
+            min = Math.min(min, benefits[e]);
+            max = Math.max(max, benefits[e]);
+        }
+        if (min > max)
+            return assignment;
+        long dummyBenefit = min - (max - min) - 1;
+
+        // objects 0..objectCount-1 are real, objectCount + i is bidder i's dummy; costs are negated benefits
+        int totalObjects = objectCount + bidderCount;
+        long[] prices = new long[totalObjects];
+        int[] owner = new int[totalObjects];
+        Arrays.fill(owner, -1);
+        // cost of the edge each bidder is assigned through
+        long[] assignedCost = new long[bidderCount];
+
+        long[] distance = new long[totalObjects];
+        int[] reachedFrom = new int[totalObjects];
+        int[] labelStamp = new int[totalObjects];
+        int[] settledStamp = new int[totalObjects];
+        int[] settled = new int[totalObjects];
+        ObjectHeap heap = new ObjectHeap();
+
+        for (int bidder = 0; bidder < bidderCount; bidder++) {
+            int stamp = bidder + 1;
+            heap.clear();
+            int settledCount = 0;
+
+            // the new bidder has no price of its own yet, so its edges start at their cost less the object price
+            relax(bidder, objectCount + bidder, -dummyBenefit, 0, stamp, prices, distance, reachedFrom,
+                    labelStamp, heap);
+            for (int e = start[bidder]; e < start[bidder + 1]; e++)
+                relax(bidder, objects[e], -benefits[e], 0, stamp, prices, distance, reachedFrom, labelStamp, heap);
+
+            int free;
+            while (true) {
+                int object = heap.pop();
+                if (settledStamp[object] == stamp)
+                    continue;
+                settledStamp[object] = stamp;
+                settled[settledCount++] = object;
+                int holder = owner[object];
+                if (holder < 0) {
+                    free = object;
+                    break;
+                }
+                // the holder's assigned edge has zero reduced cost, so its price is its edge cost less the object's
+                long base = distance[object] - (assignedCost[holder] - prices[object]);
+                relax(holder, objectCount + holder, -dummyBenefit, base, stamp, prices, distance, reachedFrom,
+                        labelStamp, heap);
+                for (int e = start[holder]; e < start[holder + 1]; e++)
+                    relax(holder, objects[e], -benefits[e], base, stamp, prices, distance, reachedFrom,
+                            labelStamp, heap);
+            }
+
+            // objects settled closer than the free one get cheaper by the difference, keeping reduced costs >= 0
+            long shortest = distance[free];
+            for (int i = 0; i < settledCount; i++)
+                prices[settled[i]] += distance[settled[i]] - shortest;
+
+            // shift assignments back along the path from the free object to the new bidder
+            int object = free;
+            while (true) {
+                int holder = reachedFrom[object];
+                int previous = assignment[holder];
+                assignment[holder] = object;
+                owner[object] = holder;
+                assignedCost[holder] = costOf(holder, object, objectCount, dummyBenefit, start, objects, benefits);
+                if (holder == bidder)
+                    break;
+                object = previous;
+            }
+        }
+
+        for (int i = 0; i < bidderCount; i++) {
+            if (assignment[i] >= objectCount)
+                assignment[i] = -1;
+        }
+        return assignment;
+    }
+
+    private static void relax(int bidder, int object, long cost, long base, int stamp, long[] prices,
+            long[] distance, int[] reachedFrom, int[] labelStamp, ObjectHeap heap) {
+        long candidate = base + cost - prices[object];
+        if (labelStamp[object] != stamp || candidate < distance[object]) {
+            labelStamp[object] = stamp;
+            distance[object] = candidate;
+            reachedFrom[object] = bidder;
+            heap.push(object, candidate);
+        }
+    }
+
+    // the cheapest edge when a bidder lists the same object twice, matching what the search relaxed
+    private static long costOf(int bidder, int object, int objectCount, long dummyBenefit, int[] start,
+            int[] objects, long[] benefits) {
+        if (object >= objectCount)
+            return -dummyBenefit;
+        long cost = Long.MAX_VALUE;
+        for (int e = start[bidder]; e < start[bidder + 1]; e++) {
+            if (objects[e] == object)
+                cost = Math.min(cost, -benefits[e]);
+        }
+        return cost;
+    }
+
+    /**
+     * Binary min-heap of (object, key) pairs. Decrease-key is done by pushing
+     * a new pair; stale pairs are skipped when popped because the object is
+     * already settled.
+     */
+    private static class ObjectHeap {
+        private int[] objects = new int[256];
+        private long[] keys = new long[256];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(int object, long key) {
+            if (size == objects.length) {
+                objects = Arrays.copyOf(objects, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key)
+                    break;
+                objects[i] = objects[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            objects[i] = object;
+            keys[i] = key;
+        }
+
+        int pop() {
+            int top = objects[0];
+            size--;
+            if (size > 0) {
+                int object = objects[size];
+                long key = keys[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size)
+                        break;
+                    if (child + 1 < size && keys[child + 1] < keys[child])
+                        child++;
+                    if (keys[child] >= key)
+                        break;
+                    objects[i] = objects[child];
+                    keys[i] = keys[child];
+                    i = child;
+                }
+                objects[i] = object;
+                keys[i] = key;
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+public class DriverCandidateDTO {
+
+    private long driverId;
+    private String firstName;
+    private String lastName;
+    private int rating;
+    private double distanceMeters;
+    private double pickupMinutes;
+    private double score;
+
+    public DriverCandidateDTO(long driverId, String firstName, String lastName, int rating,
+            double distanceMeters, double pickupMinutes, double score) {
+        this.driverId = driverId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.rating = rating;
+        this.distanceMeters = distanceMeters;
+        this.pickupMinutes = pickupMinutes;
+        this.score = score;
+    }
+
+    public long getDriverId() {
+        return driverId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public double getPickupMinutes() {
+        return pickupMinutes;
+    }
+
+    // lower is better
+    public double getScore() {
+        return score;
+    }
+}
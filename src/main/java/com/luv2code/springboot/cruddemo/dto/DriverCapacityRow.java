@@ -0,0 +1,47 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import com.luv2code.springboot.cruddemo.entites.Driver;
+
+/**
+ * A driver's stored booking counters next to the number of ACCEPTED and
+ * ONGOING trips actually assigned to them.
+ */
+public class DriverCapacityRow {
+
+    private final long driverId;
+    private final int bookedTrips;
+    private final boolean available;
+    private final int scheduledTrips;
+
+    // boxed parameters so the JPQL constructor expression matches the entity attribute types
+    public DriverCapacityRow(Long driverId, Integer bookedTrips, Boolean available, Long scheduledTrips) {
+        this.driverId = driverId;
+        this.bookedTrips = bookedTrips;
+        this.available = available;
+        this.scheduledTrips = scheduledTrips.intValue();
+    }
+
+    public long getDriverId() {
+        return driverId;
+    }
+
+    public int getBookedTrips() {
+        return bookedTrips;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public int getExpectedBookedTrips() {
+        return scheduledTrips;
+    }
+
+    public boolean isExpectedAvailable() {
+        return scheduledTrips < Driver.MAX_BOOKED_TRIPS;
+    }
+
+    public boolean isDrifted() {
+        return bookedTrips != getExpectedBookedTrips() || available != isExpectedAvailable();
+    }
+}
@@ -0,0 +1,36 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+public class DriverLocationDTO {
+
+    private Double lat;
+    private Double lon;
+    // epoch millis when the phone took the reading; optional
+    private Long recordedAt;
+
+    public DriverLocationDTO() {
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public void setLat(Double lat) {
+        this.lat = lat;
+    }
+
+    public Double getLon() {
+        return lon;
+    }
+
+    public void setLon(Double lon) {
+        this.lon = lon;
+    }
+
+    public Long getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(Long recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
@@ -0,0 +1,77 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+public class DriverLocationStatsDTO {
+
+    private long accepted;
+    private long dropped;
+    private int queueDepth;
+    private int queueCapacity;
+    private int trackedDrivers;
+    private int pendingPositions;
+    private int pendingBreadcrumbs;
+    private long flushedPositions;
+    private long flushedBreadcrumbs;
+    private long failedFlushes;
+    private long lastFlushAt;
+
+    public DriverLocationStatsDTO(long accepted, long dropped, int queueDepth, int queueCapacity,
+            int trackedDrivers, int pendingPositions, int pendingBreadcrumbs, long flushedPositions,
+            long flushedBreadcrumbs, long failedFlushes, long lastFlushAt) {
+        this.accepted = accepted;
+        this.dropped = dropped;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.trackedDrivers = trackedDrivers;
+        this.pendingPositions = pendingPositions;
+        this.pendingBreadcrumbs = pendingBreadcrumbs;
+        this.flushedPositions = flushedPositions;
+        this.flushedBreadcrumbs = flushedBreadcrumbs;
+        this.failedFlushes = failedFlushes;
+        this.lastFlushAt = lastFlushAt;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getTrackedDrivers() {
+        return trackedDrivers;
+    }
+
+    public int getPendingPositions() {
+        return pendingPositions;
+    }
+
+    public int getPendingBreadcrumbs() {
+        return pendingBreadcrumbs;
+    }
+
+    public long getFlushedPositions() {
+        return flushedPositions;
+    }
+
+    public long getFlushedBreadcrumbs() {
+        return flushedBreadcrumbs;
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes;
+    }
+
+    // epoch millis of the last successful flush, 0 if none yet
+    public long getLastFlushAt() {
+        return lastFlushAt;
+    }
+}
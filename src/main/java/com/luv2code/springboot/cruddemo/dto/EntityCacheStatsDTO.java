@@ -0,0 +1,37 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+public class EntityCacheStatsDTO {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+
+    public EntityCacheStatsDTO(String region, long hits, long misses, long puts) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,49 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+public class GeocodeCacheStatsDTO {
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private int size;
+    private int maxSize;
+
+    public GeocodeCacheStatsDTO(long hits, long misses, long evictions, long expirations, int size, int maxSize) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
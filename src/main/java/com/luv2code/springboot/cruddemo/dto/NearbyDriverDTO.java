@@ -0,0 +1,39 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+public class NearbyDriverDTO {
+
+    private long driverId;
+    private double lat;
+    private double lon;
+    private double distanceMeters;
+    private long updatedAt;
+
+    public NearbyDriverDTO(long driverId, double lat, double lon, double distanceMeters, long updatedAt) {
+        this.driverId = driverId;
+        this.lat = lat;
+        this.lon = lon;
+        this.distanceMeters = distanceMeters;
+        this.updatedAt = updatedAt;
+    }
+
+    public long getDriverId() {
+        return driverId;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public double getLon() {
+        return lon;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    // epoch millis of the ping this position came from
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class QuoteRequestDTO {
+
+    private String pickupLocation;
+    private String destination;
+
+    @JsonProperty("isPremium")
+    private boolean premium;
+
+    @JsonProperty("hasChildSeat")
+    private boolean hasChildSeat;
+
+    public String getPickupLocation() {
+        return pickupLocation;
+    }
+
+    public void setPickupLocation(String pickupLocation) {
+        this.pickupLocation = pickupLocation;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public boolean isPremium() {
+        return premium;
+    }
+
+    public void setPremium(boolean premium) {
+        this.premium = premium;
+    }
+
+    public boolean isHasChildSeat() {
+        return hasChildSeat;
+    }
+
+    public void setHasChildSeat(boolean hasChildSeat) {
+        this.hasChildSeat = hasChildSeat;
+    }
+}
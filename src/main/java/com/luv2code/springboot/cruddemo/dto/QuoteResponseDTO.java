@@ -0,0 +1,51 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class QuoteResponseDTO {
+
+    private String pickupLocation;
+    private String destination;
+
+    @JsonProperty("isPremium")
+    private boolean premium;
+
+    @JsonProperty("hasChildSeat")
+    private boolean hasChildSeat;
+
+    private RouteQuote quote;   // null when the route could not be quoted
+    private String error;       // why the route could not be quoted
+
+    public QuoteResponseDTO(QuoteRequestDTO request, RouteQuote quote, String error) {
+        this.pickupLocation = request.getPickupLocation();
+        this.destination = request.getDestination();
+        this.premium = request.isPremium();
+        this.hasChildSeat = request.isHasChildSeat();
+        this.quote = quote;
+        this.error = error;
+    }
+
+    public String getPickupLocation() {
+        return pickupLocation;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public boolean isPremium() {
+        return premium;
+    }
+
+    public boolean isHasChildSeat() {
+        return hasChildSeat;
+    }
+
+    public RouteQuote getQuote() {
+        return quote;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
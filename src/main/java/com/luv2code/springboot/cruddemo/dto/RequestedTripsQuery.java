@@ -0,0 +1,109 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of {@code GET /api/trips/requested}: a keyset cursor, an
+ * optional pickup area given either as a radius around a point or as a
+ * bounding box, and a page size. Every field is optional.
+ */
+public class RequestedTripsQuery {
+
+    // tripDate and id of the last trip of the previous page
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime afterDate;
+    private Long afterId;
+
+    private Double lat;
+    private Double lon;
+    private Double radiusMeters;
+
+    private Double minLat;
+    private Double minLon;
+    private Double maxLat;
+    private Double maxLon;
+
+    private Integer limit;
+
+    public LocalDateTime getAfterDate() {
+        return afterDate;
+    }
+
+    public void setAfterDate(LocalDateTime afterDate) {
+        this.afterDate = afterDate;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public void setLat(Double lat) {
+        this.lat = lat;
+    }
+
+    public Double getLon() {
+        return lon;
+    }
+
+    public void setLon(Double lon) {
+        this.lon = lon;
+    }
+
+    public Double getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    public void setRadiusMeters(Double radiusMeters) {
+        this.radiusMeters = radiusMeters;
+    }
+
+    public Double getMinLat() {
+        return minLat;
+    }
+
+    public void setMinLat(Double minLat) {
+        this.minLat = minLat;
+    }
+
+    public Double getMinLon() {
+        return minLon;
+    }
+
+    public void setMinLon(Double minLon) {
+        this.minLon = minLon;
+    }
+
+    public Double getMaxLat() {
+        return maxLat;
+    }
+
+    public void setMaxLat(Double maxLat) {
+        this.maxLat = maxLat;
+    }
+
+    public Double getMaxLon() {
+        return maxLon;
+    }
+
+    public void setMaxLon(Double maxLon) {
+        this.maxLon = maxLon;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
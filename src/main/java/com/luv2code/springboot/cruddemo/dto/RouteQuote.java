@@ -0,0 +1,55 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+/**
+ * Everything derived from a pickup/destination pair in one pass: the resolved
+ * coordinates, the distance between them, the estimated duration and the fare.
+ */
+public class RouteQuote {
+
+    private final double pickupLat;
+    private final double pickupLon;
+    private final double destinationLat;
+    private final double destinationLon;
+    private final double distanceKm;
+    private final int estimatedMinutes;
+    private final double fare;
+
+    public RouteQuote(double pickupLat, double pickupLon, double destinationLat, double destinationLon,
+            double distanceKm, int estimatedMinutes, double fare) {
+        this.pickupLat = pickupLat;
+        this.pickupLon = pickupLon;
+        this.destinationLat = destinationLat;
+        this.destinationLon = destinationLon;
+        this.distanceKm = distanceKm;
+        this.estimatedMinutes = estimatedMinutes;
+        this.fare = fare;
+    }
+
+    public double getPickupLat() {
+        return pickupLat;
+    }
+
+    public double getPickupLon() {
+        return pickupLon;
+    }
+
+    public double getDestinationLat() {
+        return destinationLat;
+    }
+
+    public double getDestinationLon() {
+        return destinationLon;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public int getEstimatedMinutes() {
+        return estimatedMinutes;
+    }
+
+    public double getFare() {
+        return fare;
+    }
+}
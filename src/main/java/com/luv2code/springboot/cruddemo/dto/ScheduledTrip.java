@@ -0,0 +1,32 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The part of a driver's accepted or ongoing trip that schedule checks need.
+ */
+public class ScheduledTrip {
+
+    private final long tripId;
+    private final LocalDateTime tripDate;
+    private final int estimatedMinutes;
+
+    // boxed id so the JPQL constructor expression matches the entity attribute type
+    public ScheduledTrip(Long tripId, LocalDateTime tripDate, int estimatedMinutes) {
+        this.tripId = tripId;
+        this.tripDate = tripDate;
+        this.estimatedMinutes = estimatedMinutes;
+    }
+
+    public long getTripId() {
+        return tripId;
+    }
+
+    public LocalDateTime getTripDate() {
+        return tripDate;
+    }
+
+    public int getEstimatedMinutes() {
+        return estimatedMinutes;
+    }
+}
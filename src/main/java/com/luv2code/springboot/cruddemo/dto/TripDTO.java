@@ -1,5 +1,7 @@
 package com.luv2code.springboot.cruddemo.dto;
 
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+
 import java.time.LocalDateTime;
 
 public class TripDTO {
@@ -33,6 +35,50 @@ public class TripDTO {
     private CustomerDTO customer; // نسخة آمنة من العميل
     private DriverDTO driver;     // نسخة آمنة من السائق
 
+    public TripDTO() {
+    }
+
+    // target of the JPQL constructor expression in TripDAOImpl; driver columns are null when no driver is assigned
+    public TripDTO(Long id, String pickupLocation, String destination, LocalDateTime createdAt,
+            LocalDateTime tripDate, TripStatus status, Double fare, Integer estimatedMinutes, Boolean rated,
+            Long customerId, String customerFirstName, String customerLastName, String customerEmail,
+            String customerPhone, String customerImageUrl,
+            Long driverId, String driverFirstName, String driverLastName, String driverEmail, String driverPhone,
+            String driverImageUrl, Integer driverRating, String driverLicenseNumber, Boolean driverAvailable,
+            Integer driverCurrentBookedTrips) {
+        this.id = id;
+        this.pickupLocation = pickupLocation;
+        this.destination = destination;
+        this.createdAt = createdAt;
+        this.tripDate = tripDate;
+        this.status = status.name();
+        this.fare = fare;
+        this.estimatedMinutes = estimatedMinutes;
+        this.rated = rated;
+
+        customer = new CustomerDTO();
+        customer.setId(customerId);
+        customer.setFirstName(customerFirstName);
+        customer.setLastName(customerLastName);
+        customer.setEmail(customerEmail);
+        customer.setPhone(customerPhone);
+        customer.setImageUrl(customerImageUrl);
+
+        if (driverId != null) {
+            driver = new DriverDTO();
+            driver.setId(driverId);
+            driver.setFirstName(driverFirstName);
+            driver.setLastName(driverLastName);
+            driver.setEmail(driverEmail);
+            driver.setPhone(driverPhone);
+            driver.setImageUrl(driverImageUrl);
+            driver.setRating(driverRating);
+            driver.setLicenseNumber(driverLicenseNumber);
+            driver.setAvailable(driverAvailable);
+            driver.setCurrentBookedTrips(driverCurrentBookedTrips);
+        }
+    }
+
     // ======= Getters & Setters =======
 
     public Long getId() {
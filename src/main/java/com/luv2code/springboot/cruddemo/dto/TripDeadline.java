@@ -0,0 +1,34 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A trip that has not started yet, with what its expiry depends on.
+ */
+public class TripDeadline {
+
+    private final long tripId;
+    private final TripStatus status;
+    private final LocalDateTime tripDate;
+
+    // boxed id so the JPQL constructor expression matches the entity attribute type
+    public TripDeadline(Long tripId, TripStatus status, LocalDateTime tripDate) {
+        this.tripId = tripId;
+        this.status = status;
+        this.tripDate = tripDate;
+    }
+
+    public long getTripId() {
+        return tripId;
+    }
+
+    public TripStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getTripDate() {
+        return tripDate;
+    }
+}
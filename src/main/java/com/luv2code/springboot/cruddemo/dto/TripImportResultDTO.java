@@ -0,0 +1,42 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+public class TripImportResultDTO {
+
+    private long tripsImported;
+    private long paymentsImported;
+    private long rejected;
+    private List<String> errors;
+    private long millis;
+
+    public TripImportResultDTO(long tripsImported, long paymentsImported, long rejected, List<String> errors,
+            long millis) {
+        this.tripsImported = tripsImported;
+        this.paymentsImported = paymentsImported;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.millis = millis;
+    }
+
+    public long getTripsImported() {
+        return tripsImported;
+    }
+
+    public long getPaymentsImported() {
+        return paymentsImported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    // the first rejected lines with the reason, capped by trips.import.max-reported-errors
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
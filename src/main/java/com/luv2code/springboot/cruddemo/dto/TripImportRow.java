@@ -0,0 +1,199 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.luv2code.springboot.cruddemo.entites.PaymentMethod;
+import com.luv2code.springboot.cruddemo.entites.PaymentStatus;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of a trip import: a finished trip and, when paymentAmount is set,
+ * its payment. Field names follow TripDTO; customerId and driverId must
+ * refer to existing users.
+ */
+public class TripImportRow {
+
+    private String pickupLocation;
+    private String destination;
+    private LocalDateTime tripDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private TripStatus status;
+    private Long customerId;
+    private Long driverId;
+    private Double fare;
+    private Integer estimatedMinutes;
+    private Double distanceKm;
+    private Double pickupLat;
+    private Double pickupLon;
+    @JsonProperty("isPremium")
+    private boolean premium;
+    @JsonProperty("hasChildSeat")
+    private boolean hasChildSeat;
+    private boolean rated;
+    private Double paymentAmount;
+    private PaymentMethod paymentMethod;
+    private PaymentStatus paymentStatus;
+
+    public String getPickupLocation() {
+        return pickupLocation;
+    }
+
+    public void setPickupLocation(String pickupLocation) {
+        this.pickupLocation = pickupLocation;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalDateTime getTripDate() {
+        return tripDate;
+    }
+
+    public void setTripDate(LocalDateTime tripDate) {
+        this.tripDate = tripDate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public TripStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TripStatus status) {
+        this.status = status;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Long driverId) {
+        this.driverId = driverId;
+    }
+
+    public Double getFare() {
+        return fare;
+    }
+
+    public void setFare(Double fare) {
+        this.fare = fare;
+    }
+
+    public Integer getEstimatedMinutes() {
+        return estimatedMinutes;
+    }
+
+    public void setEstimatedMinutes(Integer estimatedMinutes) {
+        this.estimatedMinutes = estimatedMinutes;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public Double getPickupLat() {
+        return pickupLat;
+    }
+
+    public void setPickupLat(Double pickupLat) {
+        this.pickupLat = pickupLat;
+    }
+
+    public Double getPickupLon() {
+        return pickupLon;
+    }
+
+    public void setPickupLon(Double pickupLon) {
+        this.pickupLon = pickupLon;
+    }
+
+    public boolean isPremium() {
+        return premium;
+    }
+
+    public void setPremium(boolean premium) {
+        this.premium = premium;
+    }
+
+    public boolean isHasChildSeat() {
+        return hasChildSeat;
+    }
+
+    public void setHasChildSeat(boolean hasChildSeat) {
+        this.hasChildSeat = hasChildSeat;
+    }
+
+    public boolean isRated() {
+        return rated;
+    }
+
+    public void setRated(boolean rated) {
+        this.rated = rated;
+    }
+
+    public Double getPaymentAmount() {
+        return paymentAmount;
+    }
+
+    public void setPaymentAmount(Double paymentAmount) {
+        this.paymentAmount = paymentAmount;
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+}
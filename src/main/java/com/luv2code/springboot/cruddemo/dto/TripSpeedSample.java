@@ -0,0 +1,51 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a completed trip that the ETA speed profiles are learned from.
+ */
+public class TripSpeedSample {
+
+    private final long tripId;
+    private final double pickupLat;
+    private final double pickupLon;
+    private final double distanceKm;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime completedAt;
+
+    // boxed parameters so the JPQL constructor expression matches the entity attribute types
+    public TripSpeedSample(Long tripId, Double pickupLat, Double pickupLon, Double distanceKm,
+            LocalDateTime startedAt, LocalDateTime completedAt) {
+        this.tripId = tripId;
+        this.pickupLat = pickupLat;
+        this.pickupLon = pickupLon;
+        this.distanceKm = distanceKm;
+        this.startedAt = startedAt;
+        this.completedAt = completedAt;
+    }
+
+    public long getTripId() {
+        return tripId;
+    }
+
+    public double getPickupLat() {
+        return pickupLat;
+    }
+
+    public double getPickupLon() {
+        return pickupLon;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.luv2code.springboot.cruddemo.entites;
 
 import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -8,12 +9,18 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "drivers")
 @AttributeOverride(name = "id", column = @Column(name = "driver_id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "drivers")
 public class Driver extends UserBase {
 
+    public static final int MAX_BOOKED_TRIPS = 3;
+
     @Min(value = 0, message = "Rating cannot be less than 0")
     @Max(value = 5, message = "Rating cannot be more than 5")
     @Column(name = "rating")
@@ -26,7 +33,7 @@ public class Driver extends UserBase {
 
     @Column(name = "available")
     private boolean available = true;
-    @Max(value = 3, message = "Driver cant book more than 3 trips")
+    @Max(value = MAX_BOOKED_TRIPS, message = "Driver cant book more than 3 trips")
     @Column(name = "current_booked_trips")
     int currentBookedTrips;
 
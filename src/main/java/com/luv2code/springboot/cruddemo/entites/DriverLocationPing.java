@@ -0,0 +1,68 @@
+package com.luv2code.springboot.cruddemo.entites;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Breadcrumb trail of driver positions. Rows are written in batches by the
+ * location write-behind job, not through JPA.
+ */
+@Entity
+@Table(name = "driver_location_pings",
+        indexes = @Index(name = "idx_driver_location_pings_driver_time", columnList = "driver_id, recorded_at"))
+public class DriverLocationPing {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ping_id")
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(name = "lat", nullable = false)
+    private double lat;
+
+    @Column(name = "lon", nullable = false)
+    private double lon;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Long driverId) {
+        this.driverId = driverId;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public void setLat(double lat) {
+        this.lat = lat;
+    }
+
+    public double getLon() {
+        return lon;
+    }
+
+    public void setLon(double lon) {
+        this.lon = lon;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
@@ -0,0 +1,59 @@
+package com.luv2code.springboot.cruddemo.entites;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last stored position of a driver, one row per driver. Rows are written in
+ * batches by the location write-behind job, not through JPA.
+ */
+@Entity
+@Table(name = "driver_positions")
+public class DriverPosition {
+
+    @Id
+    @Column(name = "driver_id")
+    private Long driverId;
+
+    @Column(name = "lat", nullable = false)
+    private double lat;
+
+    @Column(name = "lon", nullable = false)
+    private double lon;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    public Long getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Long driverId) {
+        this.driverId = driverId;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public void setLat(double lat) {
+        this.lat = lat;
+    }
+
+    public double getLon() {
+        return lon;
+    }
+
+    public void setLon(double lon) {
+        this.lon = lon;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
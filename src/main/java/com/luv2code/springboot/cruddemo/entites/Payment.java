@@ -4,7 +4,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+// created by db/migration/V3__trip_and_payment_indexes.sql
+@Table(name = "payments", indexes = @Index(name = "idx_payments_trip", columnList = "trip_id"))
 public class Payment {
 
     @Id
@@ -9,7 +9,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "trips")
+// created by db/migration/V3__trip_and_payment_indexes.sql
+@Table(name = "trips", indexes = {
+        @Index(name = "idx_trips_status_trip_date", columnList = "status, trip_date"),
+        @Index(name = "idx_trips_status_completed_at", columnList = "status, completed_at"),
+        @Index(name = "idx_trips_driver_status", columnList = "driver_id, status"),
+        @Index(name = "idx_trips_customer_status", columnList = "customer_id, status") })
 public class Trip {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -93,6 +98,62 @@ public class Trip {
         this.estimatedMinutes = estimatedMinutes;
     }
 
+    // resolved at booking time; together with the start/end times they feed the ETA speed profiles
+    @Column(name = "pickup_lat")
+    private Double pickupLat;
+
+    @Column(name = "pickup_lon")
+    private Double pickupLon;
+
+    @Column(name = "distance_km")
+    private Double distanceKm;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public Double getPickupLat() {
+        return pickupLat;
+    }
+
+    public void setPickupLat(Double pickupLat) {
+        this.pickupLat = pickupLat;
+    }
+
+    public Double getPickupLon() {
+        return pickupLon;
+    }
+
+    public void setPickupLon(Double pickupLon) {
+        this.pickupLon = pickupLon;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
     @ManyToOne
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.exception;
+
+public class InvalidLocationException extends RuntimeException {
+    public InvalidLocationException() {
+    }
+
+    public InvalidLocationException(Throwable cause) {
+        super(cause);
+    }
+
+    public InvalidLocationException(String message) {
+        super(message);
+    }
+
+    public InvalidLocationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
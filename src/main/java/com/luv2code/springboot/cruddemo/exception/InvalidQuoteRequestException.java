@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.exception;
+
+public class InvalidQuoteRequestException extends RuntimeException {
+    public InvalidQuoteRequestException() {
+    }
+
+    public InvalidQuoteRequestException(Throwable cause) {
+        super(cause);
+    }
+
+    public InvalidQuoteRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidQuoteRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
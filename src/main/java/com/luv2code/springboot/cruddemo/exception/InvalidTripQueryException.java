@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.exception;
+
+public class InvalidTripQueryException extends RuntimeException {
+    public InvalidTripQueryException() {
+    }
+
+    public InvalidTripQueryException(Throwable cause) {
+        super(cause);
+    }
+
+    public InvalidTripQueryException(String message) {
+        super(message);
+    }
+
+    public InvalidTripQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.exception;
+
+public class LocationUpdateRejectedException extends RuntimeException {
+    public LocationUpdateRejectedException() {
+    }
+
+    public LocationUpdateRejectedException(Throwable cause) {
+        super(cause);
+    }
+
+    public LocationUpdateRejectedException(String message) {
+        super(message);
+    }
+
+    public LocationUpdateRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
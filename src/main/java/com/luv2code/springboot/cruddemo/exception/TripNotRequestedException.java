@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.exception;
+
+public class TripNotRequestedException extends RuntimeException {
+    public TripNotRequestedException() {
+    }
+
+    public TripNotRequestedException(Throwable cause) {
+        super(cause);
+    }
+
+    public TripNotRequestedException(String message) {
+        super(message);
+    }
+
+    public TripNotRequestedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.exception;
+
+public class TripStatusConflictException extends RuntimeException {
+    public TripStatusConflictException() {
+    }
+
+    public TripStatusConflictException(Throwable cause) {
+        super(cause);
+    }
+
+    public TripStatusConflictException(String message) {
+        super(message);
+    }
+
+    public TripStatusConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
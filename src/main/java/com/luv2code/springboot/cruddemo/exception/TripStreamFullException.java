@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.exception;
+
+public class TripStreamFullException extends RuntimeException {
+    public TripStreamFullException() {
+    }
+
+    public TripStreamFullException(Throwable cause) {
+        super(cause);
+    }
+
+    public TripStreamFullException(String message) {
+        super(message);
+    }
+
+    public TripStreamFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,186 @@
+package com.luv2code.springboot.cruddemo.geo;
+
+import com.luv2code.springboot.cruddemo.dto.NearbyDriverDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Latest known position of every driver, with the available ones bucketed
+ * into a lat/lon grid so nearby searches only look at a few cells.
+ *
+ * Updates for one driver are serialised through the position map, so a
+ * driver is always in exactly the cell of its latest position, and only while
+ * available. Searches run without locks against concurrent updates; they
+ * never report a driver twice, but can miss one for the instant it takes to
+ * move between cells.
+ */
+public class DriverLocationIndex {
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+
+    private final double cellDegrees;
+    private final ConcurrentHashMap<Long, Position> positions = new ConcurrentHashMap<>();
+    // cells are never removed once created; the city only has so many of them
+    private final ConcurrentHashMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public DriverLocationIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    public boolean contains(long driverId) {
+        return positions.containsKey(driverId);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Moves the driver to a new position. Reports older than the position
+     * already held are ignored, so late pings cannot move a driver back.
+     *
+     * @param availableIfNew availability to record when the driver is not
+     *                       indexed yet; known drivers keep their current flag
+     */
+    public void update(long driverId, double lat, double lon, long recordedAtMillis, boolean availableIfNew) {
+        positions.compute(driverId, (id, previous) -> {
+            if (previous != null && previous.recordedAtMillis > recordedAtMillis)
+                return previous;
+            boolean available = previous != null ? previous.available : availableIfNew;
+            Position next = new Position(id, lat, lon, cellKey(lat, lon), recordedAtMillis, available);
+            move(previous, next);
+            return next;
+        });
+    }
+
+    public void setAvailable(long driverId, boolean available) {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            if (previous.available == available)
+                return previous;
+            Position next = new Position(id, previous.lat, previous.lon, previous.cell,
+                    previous.recordedAtMillis, available);
+            move(previous, next);
+            return next;
+        });
+    }
+
+    public void remove(long driverId) {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            move(previous, null);
+            return null;
+        });
+    }
+
+    /**
+     * @return up to {@code k} available drivers within {@code maxMeters} whose
+     *         position was reported at or after {@code notBeforeMillis},
+     *         closest first
+     */
+    public List<NearbyDriverDTO> nearest(double lat, double lon, int k, double maxMeters, long notBeforeMillis) {
+        if (k <= 0)
+            return List.of();
+        // max-heap on distance holding the k best so far
+        PriorityQueue<NearbyDriverDTO> best = new PriorityQueue<>(
+                Comparator.comparingDouble(NearbyDriverDTO::getDistanceMeters).reversed());
+        double cellMeters = cellMeters(lat);
+        int maxRing = (int) Math.ceil(maxMeters / cellMeters) + 1;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // every driver in this ring or beyond is at least (ring - 1) cells away
+            if (best.size() == k && (ring - 1) * cellMeters > best.peek().getDistanceMeters())
+                break;
+            forEachInRing(lat, lon, ring, maxMeters, notBeforeMillis, candidate -> {
+                if (best.size() < k) {
+                    best.add(candidate);
+                } else if (candidate.getDistanceMeters() < best.peek().getDistanceMeters()) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            });
+        }
+        List<NearbyDriverDTO> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(NearbyDriverDTO::getDistanceMeters));
+        return result;
+    }
+
+    private void forEachInRing(double lat, double lon, int ring, double maxMeters, long notBeforeMillis,
+            Consumer<NearbyDriverDTO> sink) {
+        int centerRow = (int) Math.floor(lat / cellDegrees);
+        int centerCol = (int) Math.floor(lon / cellDegrees);
+        for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+            for (int col = centerCol - ring; col <= centerCol + ring; col++) {
+                if (Math.abs(row - centerRow) != ring && Math.abs(col - centerCol) != ring)
+                    continue;
+                Set<Long> drivers = cells.get(cellKey(row, col));
+                if (drivers == null)
+                    continue;
+                for (Long driverId : drivers) {
+                    Position p = positions.get(driverId);
+                    // the driver may have moved or gone unavailable since the cell was read
+                    if (p == null || !p.available || p.cell != cellKey(row, col)
+                            || p.recordedAtMillis < notBeforeMillis)
+                        continue;
+                    double meters = metersBetween(lat, lon, p.lat, p.lon);
+                    if (meters <= maxMeters)
+                        sink.accept(new NearbyDriverDTO(p.driverId, p.lat, p.lon, meters, p.recordedAtMillis));
+                }
+            }
+        }
+    }
+
+    // called inside the position map's compute for this driver
+    private void move(Position previous, Position next) {
+        boolean wasIndexed = previous != null && previous.available;
+        boolean isIndexed = next != null && next.available;
+        if (wasIndexed && (!isIndexed || previous.cell != next.cell)) {
+            Set<Long> drivers = cells.get(previous.cell);
+            if (drivers != null)
+                drivers.remove(previous.driverId);
+        }
+        if (isIndexed && (!wasIndexed || previous.cell != next.cell))
+            cells.computeIfAbsent(next.cell, key -> ConcurrentHashMap.newKeySet()).add(next.driverId);
+    }
+
+    private double cellMeters(double lat) {
+        return Math.toRadians(cellDegrees) * EARTH_RADIUS_M
+                * Math.max(0.01, Math.min(1.0, Math.cos(Math.toRadians(lat))));
+    }
+
+    private long cellKey(double lat, double lon) {
+        return cellKey((int) Math.floor(lat / cellDegrees), (int) Math.floor(lon / cellDegrees));
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    // equirectangular distance; fine at the few-kilometre scale of a driver search
+    static double metersBetween(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS_M * Math.sqrt(x * x + y * y);
+    }
+
+    private static class Position {
+        final long driverId;
+        final double lat;
+        final double lon;
+        final long cell;
+        final long recordedAtMillis;
+        final boolean available;
+
+        Position(long driverId, double lat, double lon, long cell, long recordedAtMillis, boolean available) {
+            this.driverId = driverId;
+            this.lat = lat;
+            this.lon = lon;
+            this.cell = cell;
+            this.recordedAtMillis = recordedAtMillis;
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.luv2code.springboot.cruddemo.geo;
+
+/**
+ * A batch of points with their radians and latitude cosines computed once, so
+ * distance loops over them do no per-point trigonometry beyond the haversine
+ * itself. Build it once per point set and reuse it across queries.
+ */
+public class GeoPoints {
+
+    final double[] latRad;
+    final double[] lonRad;
+    final double[] cosLat;
+    private final int size;
+
+    private GeoPoints(int size) {
+        this.size = size;
+        this.latRad = new double[size];
+        this.lonRad = new double[size];
+        this.cosLat = new double[size];
+    }
+
+    public static GeoPoints of(double[] lats, double[] lons) {
+        if (lats.length != lons.length)
+            throw new IllegalArgumentException("lats and lons must have the same length");
+        return of(lats, lons, lats.length);
+    }
+
+    /**
+     * Uses only the first {@code count} entries, so callers can pass reusable,
+     * partially filled buffers.
+     */
+    public static GeoPoints of(double[] lats, double[] lons, int count) {
+        GeoPoints points = new GeoPoints(count);
+        for (int i = 0; i < count; i++) {
+            points.latRad[i] = Math.toRadians(lats[i]);
+            points.lonRad[i] = Math.toRadians(lons[i]);
+            points.cosLat[i] = Math.cos(points.latRad[i]);
+        }
+        return points;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double latRad(int i) {
+        return latRad[i];
+    }
+
+    public double lonRad(int i) {
+        return lonRad[i];
+    }
+
+    public double cosLat(int i) {
+        return cosLat[i];
+    }
+}
@@ -0,0 +1,35 @@
+package com.luv2code.springboot.cruddemo.geo;
+
+/**
+ * One position report from a driver's phone.
+ */
+public class LocationPing {
+
+    private final long driverId;
+    private final double lat;
+    private final double lon;
+    private final long recordedAtMillis;
+
+    public LocationPing(long driverId, double lat, double lon, long recordedAtMillis) {
+        this.driverId = driverId;
+        this.lat = lat;
+        this.lon = lon;
+        this.recordedAtMillis = recordedAtMillis;
+    }
+
+    public long getDriverId() {
+        return driverId;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public double getLon() {
+        return lon;
+    }
+
+    public long getRecordedAtMillis() {
+        return recordedAtMillis;
+    }
+}
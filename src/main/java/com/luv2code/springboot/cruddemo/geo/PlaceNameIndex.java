@@ -0,0 +1,196 @@
+package com.luv2code.springboot.cruddemo.geo;
+
+import java.util.Arrays;
+
+/**
+ * Immutable trie of normalized place names stored in flat primitive arrays.
+ *
+ * Every node is an index into the arrays below; children of a node form a
+ * linked list through {@code nextSibling}, kept sorted by label. A node that
+ * ends a name points at that place's coordinates through {@code place}.
+ * Lookups walk the trie directly, and fuzzy lookups carry a Levenshtein row
+ * down the trie so whole subtrees are skipped once they exceed the edit budget.
+ */
+public class PlaceNameIndex {
+
+    private static final int NONE = -1;
+
+    private final char[] label;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] place;
+    private final double[] lats;
+    private final double[] lons;
+    private final int nodeCount;
+    private final int placeCount;
+
+    private PlaceNameIndex(Builder builder) {
+        this.nodeCount = builder.nodeCount;
+        this.placeCount = builder.placeCount;
+        this.label = Arrays.copyOf(builder.label, nodeCount);
+        this.firstChild = Arrays.copyOf(builder.firstChild, nodeCount);
+        this.nextSibling = Arrays.copyOf(builder.nextSibling, nodeCount);
+        this.place = Arrays.copyOf(builder.place, nodeCount);
+        this.lats = Arrays.copyOf(builder.lats, placeCount);
+        this.lons = Arrays.copyOf(builder.lons, placeCount);
+    }
+
+    public static PlaceNameIndex empty() {
+        return new Builder().build();
+    }
+
+    public int size() {
+        return placeCount;
+    }
+
+    /**
+     * @param name     normalized place name
+     * @param maxEdits largest Levenshtein distance accepted for a fuzzy match
+     * @return {lat, lon} of the exact match, else of the closest match within
+     *         {@code maxEdits}, else null
+     */
+    public double[] lookup(String name, int maxEdits) {
+        int exact = findExact(name);
+        if (exact != NONE)
+            return new double[] { lats[exact], lons[exact] };
+        if (maxEdits <= 0 || placeCount == 0)
+            return null;
+
+        FuzzyMatch best = new FuzzyMatch(maxEdits);
+        int[] firstRow = new int[name.length() + 1];
+        for (int i = 0; i < firstRow.length; i++)
+            firstRow[i] = i;
+        for (int child = firstChild[0]; child != NONE; child = nextSibling[child])
+            searchFuzzy(child, name, firstRow, best);
+
+        return best.place == NONE ? null : new double[] { lats[best.place], lons[best.place] };
+    }
+
+    private int findExact(String name) {
+        int node = 0;
+        for (int i = 0; i < name.length() && node != NONE; i++)
+            node = findChild(node, name.charAt(i));
+        return node == NONE ? NONE : place[node];
+    }
+
+    private int findChild(int node, char c) {
+        for (int child = firstChild[node]; child != NONE && label[child] <= c; child = nextSibling[child]) {
+            if (label[child] == c)
+                return child;
+        }
+        return NONE;
+    }
+
+    private void searchFuzzy(int node, String name, int[] previousRow, FuzzyMatch best) {
+        int columns = name.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        char c = label[node];
+        for (int i = 1; i < columns; i++) {
+            int insert = row[i - 1] + 1;
+            int delete = previousRow[i] + 1;
+            int replace = previousRow[i - 1] + (name.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(insert, Math.min(delete, replace));
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[columns - 1];
+        if (place[node] != NONE && distance <= best.maxEdits && distance < best.distance) {
+            best.distance = distance;
+            best.place = place[node];
+        }
+        // nothing below this node can beat the current best once every cell is over budget
+        if (rowMin > best.maxEdits || rowMin >= best.distance)
+            return;
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child])
+            searchFuzzy(child, name, row, best);
+    }
+
+    private static class FuzzyMatch {
+        final int maxEdits;
+        int distance = Integer.MAX_VALUE;
+        int place = NONE;
+
+        FuzzyMatch(int maxEdits) {
+            this.maxEdits = maxEdits;
+        }
+    }
+
+    public static class Builder {
+
+        private char[] label = new char[1024];
+        private int[] firstChild = new int[1024];
+        private int[] nextSibling = new int[1024];
+        private int[] place = new int[1024];
+        private double[] lats = new double[256];
+        private double[] lons = new double[256];
+        private int nodeCount;
+        private int placeCount;
+
+        public Builder() {
+            newNode('\0');
+        }
+
+        /**
+         * Adds a normalized name. When the same name appears twice the first
+         * coordinates win, matching the first-result behaviour of Nominatim.
+         */
+        public Builder add(String name, double lat, double lon) {
+            if (name.isEmpty())
+                return this;
+            int node = 0;
+            for (int i = 0; i < name.length(); i++)
+                node = childOrCreate(node, name.charAt(i));
+            if (place[node] != NONE)
+                return this;
+
+            if (placeCount == lats.length) {
+                lats = Arrays.copyOf(lats, placeCount * 2);
+                lons = Arrays.copyOf(lons, placeCount * 2);
+            }
+            lats[placeCount] = lat;
+            lons[placeCount] = lon;
+            place[node] = placeCount++;
+            return this;
+        }
+
+        public PlaceNameIndex build() {
+            return new PlaceNameIndex(this);
+        }
+
+        private int childOrCreate(int node, char c) {
+            int previous = NONE;
+            int child = firstChild[node];
+            while (child != NONE && label[child] < c) {
+                previous = child;
+                child = nextSibling[child];
+            }
+            if (child != NONE && label[child] == c)
+                return child;
+
+            int created = newNode(c);
+            nextSibling[created] = child;
+            if (previous == NONE)
+                firstChild[node] = created;
+            else
+                nextSibling[previous] = created;
+            return created;
+        }
+
+        private int newNode(char c) {
+            if (nodeCount == label.length) {
+                int capacity = nodeCount * 2;
+                label = Arrays.copyOf(label, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                place = Arrays.copyOf(place, capacity);
+            }
+            label[nodeCount] = c;
+            firstChild[nodeCount] = NONE;
+            nextSibling[nodeCount] = NONE;
+            place[nodeCount] = NONE;
+            return nodeCount++;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.luv2code.springboot.cruddemo.handler;
 
 import com.luv2code.springboot.cruddemo.exception.*;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.LocalDateTime;
 
@@ -37,6 +40,23 @@ public class GlobalExceptionHandler {
                 return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
         }
 
+        // constraints on controller method parameters, such as the elements of a request body list
+        @ExceptionHandler(HandlerMethodValidationException.class)
+        public ResponseEntity<ErrorResponse> handleMethodValidationException(HandlerMethodValidationException ex) {
+                String errorMessage = ex.getAllErrors()
+                                .stream()
+                                .map(MessageSourceResolvable::getDefaultMessage)
+                                .findFirst()
+                                .orElse("Validation error");
+
+                ErrorResponse error = new ErrorResponse(
+                                HttpStatus.BAD_REQUEST.value(),
+                                errorMessage,
+                                LocalDateTime.now());
+
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+
         @ExceptionHandler(EmailAlreadyExistsException.class)
         public ResponseEntity<ErrorResponse> handleEmailAlreadyExistsException(EmailAlreadyExistsException ex) {
                 ErrorResponse errorResponse = new ErrorResponse(
@@ -238,4 +258,78 @@ public class GlobalExceptionHandler {
                 return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
         }
 
+        @ExceptionHandler(InvalidQuoteRequestException.class)
+        public ResponseEntity<ErrorResponse> handleInvalidQuoteRequestException(InvalidQuoteRequestException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.BAD_REQUEST.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        @ExceptionHandler(InvalidLocationException.class)
+        public ResponseEntity<ErrorResponse> handleInvalidLocationException(InvalidLocationException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.BAD_REQUEST.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        @ExceptionHandler(LocationUpdateRejectedException.class)
+        public ResponseEntity<ErrorResponse> handleLocationUpdateRejectedException(LocationUpdateRejectedException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        @ExceptionHandler(TripNotRequestedException.class)
+        public ResponseEntity<ErrorResponse> handleTripNotRequestedException(TripNotRequestedException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.CONFLICT.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        }
+
+        @ExceptionHandler(TripStreamFullException.class)
+        public ResponseEntity<ErrorResponse> handleTripStreamFullException(TripStreamFullException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        @ExceptionHandler(InvalidTripQueryException.class)
+        public ResponseEntity<ErrorResponse> handleInvalidTripQueryException(InvalidTripQueryException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.BAD_REQUEST.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        @ExceptionHandler(TripStatusConflictException.class)
+        public ResponseEntity<ErrorResponse> handleTripStatusConflictException(TripStatusConflictException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.CONFLICT.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        }
+
+        // a deadlock or lock wait timeout against a concurrent booking; the request changed nothing
+        @ExceptionHandler(PessimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handlePessimisticLockingFailureException(
+                        PessimisticLockingFailureException ex) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                HttpStatus.CONFLICT.value(),
+                                "The trip or driver was being changed by another request, please try again.",
+                                LocalDateTime.now());
+                return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        }
+
 }
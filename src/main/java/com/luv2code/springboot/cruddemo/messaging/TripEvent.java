@@ -0,0 +1,73 @@
+package com.luv2code.springboot.cruddemo.messaging;
+
+import com.luv2code.springboot.cruddemo.dto.TripDTO;
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.mapper.TripMapper;
+
+import java.time.LocalDateTime;
+
+/**
+ * A trip joining or leaving the pool of REQUESTED trips drivers can accept.
+ * Published inside the transaction that made the change and streamed to
+ * drivers once it commits.
+ */
+public class TripEvent {
+
+    public enum Type {
+        // waiting for a driver, either newly booked or handed back by a driver
+        CREATED,
+        TAKEN,
+        CANCELLED,
+        EXPIRED
+    }
+
+    private final Type type;
+    private final long tripId;
+    private final Double pickupLat;
+    private final Double pickupLon;
+    private final LocalDateTime tripDate;
+    private final TripDTO trip;
+
+    private TripEvent(Type type, Trip trip, TripDTO dto) {
+        this.type = type;
+        this.tripId = trip.getId();
+        this.pickupLat = trip.getPickupLat();
+        this.pickupLon = trip.getPickupLon();
+        this.tripDate = trip.getTripDate();
+        this.trip = dto;
+    }
+
+    public static TripEvent created(Trip trip) {
+        return new TripEvent(Type.CREATED, trip, TripMapper.tripDTO(trip));
+    }
+
+    // a trip leaving the pool; drivers only need to know which one
+    public static TripEvent removed(Type type, Trip trip) {
+        return new TripEvent(type, trip, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTripId() {
+        return tripId;
+    }
+
+    public Double getPickupLat() {
+        return pickupLat;
+    }
+
+    public Double getPickupLon() {
+        return pickupLon;
+    }
+
+    public LocalDateTime getTripDate() {
+        return tripDate;
+    }
+
+    // only set for CREATED
+    public TripDTO getTrip() {
+        return trip;
+    }
+}
@@ -0,0 +1,70 @@
+package com.luv2code.springboot.cruddemo.pricing;
+
+/**
+ * Compiled fare table. All money is in integer minor units (piastres).
+ *
+ * Surcharges are rules keyed by a trip option; each option owns one bit of a
+ * flag mask. At compile time the surcharge total for every possible mask is
+ * summed into {@code surchargeByFlags}, so pricing a trip is one multiply, one
+ * array read and two adds, with nothing allocated.
+ */
+public final class FarePolicy {
+
+    public static final int PREMIUM = 1;
+    public static final int CHILD_SEAT = 1 << 1;
+
+    // rule name for each flag bit, in bit order; these are the keys read from configuration
+    public static final String[] SURCHARGE_RULES = { "premium", "child-seat" };
+
+    private final long baseMinor;
+    private final long perKmMinor;
+    private final long[] surchargeMinor;
+    private final long[] surchargeByFlags;
+
+    /**
+     * @param surchargeMinor surcharge per rule, indexed like {@link #SURCHARGE_RULES}
+     */
+    public FarePolicy(long baseMinor, long perKmMinor, long[] surchargeMinor) {
+        if (surchargeMinor.length != SURCHARGE_RULES.length)
+            throw new IllegalArgumentException("Expected " + SURCHARGE_RULES.length + " surcharges");
+        if (baseMinor < 0 || perKmMinor < 0)
+            throw new IllegalArgumentException("Base fare and per-km rate cannot be negative");
+        for (long surcharge : surchargeMinor) {
+            if (surcharge < 0)
+                throw new IllegalArgumentException("Surcharges cannot be negative");
+        }
+
+        this.baseMinor = baseMinor;
+        this.perKmMinor = perKmMinor;
+        this.surchargeMinor = surchargeMinor.clone();
+        this.surchargeByFlags = new long[1 << surchargeMinor.length];
+        for (int mask = 0; mask < surchargeByFlags.length; mask++) {
+            long total = 0;
+            for (int rule = 0; rule < surchargeMinor.length; rule++) {
+                if ((mask & (1 << rule)) != 0)
+                    total += surchargeMinor[rule];
+            }
+            surchargeByFlags[mask] = total;
+        }
+    }
+
+    public static int flags(boolean premium, boolean childSeat) {
+        return (premium ? PREMIUM : 0) | (childSeat ? CHILD_SEAT : 0);
+    }
+
+    public long fareMinor(double distanceKm, int flags) {
+        return baseMinor + Math.round(distanceKm * perKmMinor) + surchargeByFlags[flags];
+    }
+
+    public long getBaseMinor() {
+        return baseMinor;
+    }
+
+    public long getPerKmMinor() {
+        return perKmMinor;
+    }
+
+    public long getSurchargeMinor(int rule) {
+        return surchargeMinor[rule];
+    }
+}
@@ -0,0 +1,338 @@
+package com.luv2code.springboot.cruddemo.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shortest-time queries on a {@link RoadGraph} with bidirectional A*.
+ *
+ * Both searches use the average potential {@code p(v) = (h(v, t) - h(s, v)) / 2},
+ * where {@code h} is straight-line distance over the fastest speed in the
+ * graph. With that potential forward and backward reduced edge weights are
+ * identical and non-negative, so the usual bidirectional Dijkstra stopping
+ * rule stays exact while both frontiers are pulled towards each other.
+ *
+ * Search state is sized to the graph, so at most {@code maxSearches} of them
+ * are ever created and queries take one from a shared pool, waiting when all
+ * are in use. A query only allocates its result.
+ */
+public class BidirectionalAStar {
+
+    // keeps the heuristic a strict lower bound when edge lengths are rounded in the source data
+    private static final double HEURISTIC_SLACK = 0.98;
+
+    private final RoadGraph graph;
+    private final int maxSearches;
+    private final BlockingQueue<SearchState> idleStates;
+    private final AtomicInteger createdStates = new AtomicInteger();
+
+    /**
+     * @param maxSearches queries that can run at the same time; each holds
+     *                    arrays sized to the graph while it runs
+     */
+    public BidirectionalAStar(RoadGraph graph, int maxSearches) {
+        if (maxSearches <= 0)
+            throw new IllegalArgumentException("maxSearches must be positive");
+        this.graph = graph;
+        this.maxSearches = maxSearches;
+        this.idleStates = new ArrayBlockingQueue<>(maxSearches);
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return fastest route from {@code source} to {@code target}, or null if
+     *         the target cannot be reached
+     */
+    public RouteResult route(int source, int target) {
+        if (source == target)
+            return new RouteResult(0, 0);
+
+        SearchState st = acquireState();
+        try {
+            return search(st, source, target);
+        } finally {
+            idleStates.offer(st);
+        }
+    }
+
+    private RouteResult search(SearchState st, int source, int target) {
+        st.reset();
+        double sLat = graph.lat[source], sLon = graph.lon[source];
+        double tLat = graph.lat[target], tLon = graph.lon[target];
+        double secondsPerMeter = 1.0 / graph.maxSpeedMps * HEURISTIC_SLACK;
+
+        st.labelForward(source, 0, -1);
+        st.forwardHeap.push(source, 0);
+        st.labelBackward(target, 0, -1);
+        st.backwardHeap.push(target, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+
+        while (!st.forwardHeap.isEmpty() && !st.backwardHeap.isEmpty()) {
+            double forwardTop = st.forwardHeap.peekKey();
+            double backwardTop = st.backwardHeap.peekKey();
+            if (forwardTop + backwardTop >= best)
+                break;
+
+            if (forwardTop <= backwardTop) {
+                int u = st.forwardHeap.pop();
+                if (st.isSettledForward(u))
+                    continue;
+                st.settleForward(u);
+                double pu = potential(u, sLat, sLon, tLat, tLon, secondsPerMeter);
+                for (int e = graph.outStart[u]; e < graph.outStart[u + 1]; e++) {
+                    int v = graph.outTarget[e];
+                    double pv = potential(v, sLat, sLon, tLat, tLon, secondsPerMeter);
+                    double reduced = st.forwardDistance(u) + graph.outSeconds[e] - pu + pv;
+                    if (reduced < st.forwardDistance(v)) {
+                        st.labelForward(v, reduced, e);
+                        st.forwardHeap.push(v, reduced);
+                    }
+                    double through = st.forwardDistance(v) + st.backwardDistance(v);
+                    if (through < best) {
+                        best = through;
+                        meeting = v;
+                    }
+                }
+            } else {
+                int u = st.backwardHeap.pop();
+                if (st.isSettledBackward(u))
+                    continue;
+                st.settleBackward(u);
+                double pu = potential(u, sLat, sLon, tLat, tLon, secondsPerMeter);
+                for (int e = graph.inStart[u]; e < graph.inStart[u + 1]; e++) {
+                    int v = graph.inSource[e];
+                    double pv = potential(v, sLat, sLon, tLat, tLon, secondsPerMeter);
+                    // same reduced weight as the forward edge v -> u
+                    double reduced = st.backwardDistance(u) + graph.inSeconds[e] - pv + pu;
+                    if (reduced < st.backwardDistance(v)) {
+                        st.labelBackward(v, reduced, e);
+                        st.backwardHeap.push(v, reduced);
+                    }
+                    double through = st.forwardDistance(v) + st.backwardDistance(v);
+                    if (through < best) {
+                        best = through;
+                        meeting = v;
+                    }
+                }
+            }
+        }
+
+        if (meeting < 0)
+            return null;
+        return assemble(st, meeting);
+    }
+
+    // states are created on demand up to the limit, after which callers wait for one to be returned
+    private SearchState acquireState() {
+        SearchState st = idleStates.poll();
+        if (st != null)
+            return st;
+        for (int created = createdStates.get(); created < maxSearches; created = createdStates.get()) {
+            if (createdStates.compareAndSet(created, created + 1))
+                return new SearchState(graph.nodeCount);
+        }
+        try {
+            return idleStates.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a route search", e);
+        }
+    }
+
+    // sums real lengths and times along the two half paths instead of undoing the potentials
+    private RouteResult assemble(SearchState st, int meeting) {
+        double meters = 0;
+        double seconds = 0;
+        for (int v = meeting, e = st.forwardEdge[v]; e >= 0; e = st.forwardEdge[v]) {
+            meters += graph.outMeters[e];
+            seconds += graph.outSeconds[e];
+            v = sourceOf(e);
+        }
+        for (int v = meeting, e = st.backwardEdge[v]; e >= 0; e = st.backwardEdge[v]) {
+            meters += graph.inMeters[e];
+            seconds += graph.inSeconds[e];
+            v = targetOf(e);
+        }
+        return new RouteResult(meters, seconds);
+    }
+
+    private int sourceOf(int outEdge) {
+        int lo = 0, hi = graph.nodeCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (graph.outStart[mid] <= outEdge)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private int targetOf(int inEdge) {
+        int lo = 0, hi = graph.nodeCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (graph.inStart[mid] <= inEdge)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private double potential(int v, double sLat, double sLon, double tLat, double tLon, double secondsPerMeter) {
+        double toTarget = RoadGraph.metersBetween(graph.lat[v], graph.lon[v], tLat, tLon);
+        double fromSource = RoadGraph.metersBetween(sLat, sLon, graph.lat[v], graph.lon[v]);
+        return 0.5 * (toTarget - fromSource) * secondsPerMeter;
+    }
+
+    /**
+     * Arrays for one query at a time. A label is only valid when its stamp matches the
+     * current search, so nothing is cleared between queries.
+     */
+    private static class SearchState {
+        final double[] forwardDist;
+        final double[] backwardDist;
+        final int[] forwardEdge;
+        final int[] backwardEdge;
+        final int[] forwardStamp;
+        final int[] backwardStamp;
+        final int[] forwardSettled;
+        final int[] backwardSettled;
+        final NodeHeap forwardHeap = new NodeHeap();
+        final NodeHeap backwardHeap = new NodeHeap();
+        int search;
+
+        SearchState(int nodeCount) {
+            forwardDist = new double[nodeCount];
+            backwardDist = new double[nodeCount];
+            forwardEdge = new int[nodeCount];
+            backwardEdge = new int[nodeCount];
+            forwardStamp = new int[nodeCount];
+            backwardStamp = new int[nodeCount];
+            forwardSettled = new int[nodeCount];
+            backwardSettled = new int[nodeCount];
+        }
+
+        void reset() {
+            forwardHeap.clear();
+            backwardHeap.clear();
+            if (++search == Integer.MAX_VALUE) {
+                Arrays.fill(forwardStamp, 0);
+                Arrays.fill(backwardStamp, 0);
+                Arrays.fill(forwardSettled, 0);
+                Arrays.fill(backwardSettled, 0);
+                search = 1;
+            }
+        }
+
+        double forwardDistance(int v) {
+            return forwardStamp[v] == search ? forwardDist[v] : Double.POSITIVE_INFINITY;
+        }
+
+        double backwardDistance(int v) {
+            return backwardStamp[v] == search ? backwardDist[v] : Double.POSITIVE_INFINITY;
+        }
+
+        void labelForward(int v, double distance, int edge) {
+            forwardStamp[v] = search;
+            forwardDist[v] = distance;
+            forwardEdge[v] = edge;
+        }
+
+        void labelBackward(int v, double distance, int edge) {
+            backwardStamp[v] = search;
+            backwardDist[v] = distance;
+            backwardEdge[v] = edge;
+        }
+
+        boolean isSettledForward(int v) {
+            return forwardSettled[v] == search;
+        }
+
+        boolean isSettledBackward(int v) {
+            return backwardSettled[v] == search;
+        }
+
+        void settleForward(int v) {
+            forwardSettled[v] = search;
+        }
+
+        void settleBackward(int v) {
+            backwardSettled[v] = search;
+        }
+    }
+
+    /**
+     * Binary min-heap of (node, key) pairs. Decrease-key is done by pushing a
+     * new pair; stale pairs are skipped when popped because the node is
+     * already settled.
+     */
+    private static class NodeHeap {
+        private int[] nodes = new int[256];
+        private double[] keys = new double[256];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        void push(int node, double key) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key)
+                    break;
+                nodes[i] = nodes[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            keys[i] = key;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                int node = nodes[size];
+                double key = keys[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size)
+                        break;
+                    if (child + 1 < size && keys[child + 1] < keys[child])
+                        child++;
+                    if (keys[child] >= key)
+                        break;
+                    nodes[i] = nodes[child];
+                    keys[i] = keys[child];
+                    i = child;
+                }
+                nodes[i] = node;
+                keys[i] = key;
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.luv2code.springboot.cruddemo.routing;
+
+import java.util.Arrays;
+
+/**
+ * Immutable directed road graph in compressed sparse row form.
+ *
+ * Outgoing edges of node {@code u} are {@code outStart[u] .. outStart[u + 1]}
+ * in the {@code out*} arrays; incoming edges are laid out the same way in the
+ * {@code in*} arrays so searches can run backwards from the destination.
+ * Nodes are also bucketed into a lat/lon grid for snapping coordinates to the
+ * closest node.
+ */
+public class RoadGraph {
+
+    static final double EARTH_RADIUS_M = 6_371_000.0;
+    private static final double CELL_DEGREES = 0.01;
+
+    final int nodeCount;
+    final double[] lat;
+    final double[] lon;
+
+    final int[] outStart;
+    final int[] outTarget;
+    final float[] outSeconds;
+    final int[] outMeters;
+
+    final int[] inStart;
+    final int[] inSource;
+    final float[] inSeconds;
+    final int[] inMeters;
+
+    final double maxSpeedMps;
+
+    // grid: cellKeys sorted, nodes of cellKeys[i] are cellNodes[cellStart[i] .. cellStart[i + 1]]
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    private RoadGraph(Builder b) {
+        this.nodeCount = b.nodeCount;
+        this.lat = Arrays.copyOf(b.lat, nodeCount);
+        this.lon = Arrays.copyOf(b.lon, nodeCount);
+
+        int edgeCount = b.edgeCount;
+        this.outStart = new int[nodeCount + 1];
+        this.outTarget = new int[edgeCount];
+        this.outSeconds = new float[edgeCount];
+        this.outMeters = new int[edgeCount];
+        this.inStart = new int[nodeCount + 1];
+        this.inSource = new int[edgeCount];
+        this.inSeconds = new float[edgeCount];
+        this.inMeters = new int[edgeCount];
+
+        // counting sort of the edge list by source (out) and by target (in)
+        for (int e = 0; e < edgeCount; e++) {
+            outStart[b.edgeFrom[e] + 1]++;
+            inStart[b.edgeTo[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            outStart[v + 1] += outStart[v];
+            inStart[v + 1] += inStart[v];
+        }
+        int[] outNext = Arrays.copyOf(outStart, nodeCount);
+        int[] inNext = Arrays.copyOf(inStart, nodeCount);
+        double fastest = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            int o = outNext[b.edgeFrom[e]]++;
+            outTarget[o] = b.edgeTo[e];
+            outSeconds[o] = b.edgeSeconds[e];
+            outMeters[o] = b.edgeMeters[e];
+
+            int i = inNext[b.edgeTo[e]]++;
+            inSource[i] = b.edgeFrom[e];
+            inSeconds[i] = b.edgeSeconds[e];
+            inMeters[i] = b.edgeMeters[e];
+
+            if (b.edgeSeconds[e] > 0)
+                fastest = Math.max(fastest, b.edgeMeters[e] / (double) b.edgeSeconds[e]);
+        }
+        this.maxSpeedMps = fastest > 0 ? fastest : 1;
+
+        // bucket nodes by grid cell, sorted by cell key
+        Integer[] order = new Integer[nodeCount];
+        long[] keys = new long[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            order[v] = v;
+            keys[v] = cellKey(lat[v], lon[v]);
+        }
+        Arrays.sort(order, (x, y) -> Long.compare(keys[x], keys[y]));
+        this.cellNodes = new int[nodeCount];
+        int distinct = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            cellNodes[i] = order[i];
+            if (i == 0 || keys[order[i]] != keys[order[i - 1]])
+                distinct++;
+        }
+        this.cellKeys = new long[distinct];
+        this.cellStart = new int[distinct + 1];
+        int cell = -1;
+        for (int i = 0; i < nodeCount; i++) {
+            long key = keys[cellNodes[i]];
+            if (cell < 0 || cellKeys[cell] != key) {
+                cell++;
+                cellKeys[cell] = key;
+                cellStart[cell] = i;
+            }
+        }
+        cellStart[distinct] = nodeCount;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return outTarget.length;
+    }
+
+    /**
+     * @return the node closest to the point, or -1 if none lies within
+     *         {@code maxMeters}
+     */
+    public int nearestNode(double pointLat, double pointLon, double maxMeters) {
+        int centerRow = (int) Math.floor(pointLat / CELL_DEGREES);
+        int centerCol = (int) Math.floor(pointLon / CELL_DEGREES);
+        double cellMeters = Math.toRadians(CELL_DEGREES) * EARTH_RADIUS_M
+                * Math.max(0.01, Math.min(1.0, Math.cos(Math.toRadians(pointLat))));
+        int maxRing = (int) Math.ceil(maxMeters / cellMeters) + 1;
+
+        int best = -1;
+        double bestMeters = maxMeters;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // every node in this ring or beyond is at least (ring - 1) cells away
+            if (best >= 0 && (ring - 1) * cellMeters > bestMeters)
+                break;
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                for (int col = centerCol - ring; col <= centerCol + ring; col++) {
+                    if (Math.abs(row - centerRow) != ring && Math.abs(col - centerCol) != ring)
+                        continue;
+                    int cell = Arrays.binarySearch(cellKeys, cellKey(row, col));
+                    if (cell < 0)
+                        continue;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int v = cellNodes[i];
+                        double meters = metersBetween(pointLat, pointLon, lat[v], lon[v]);
+                        if (meters <= bestMeters) {
+                            bestMeters = meters;
+                            best = v;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    public double metersToNode(int v, double pointLat, double pointLon) {
+        return metersBetween(pointLat, pointLon, lat[v], lon[v]);
+    }
+
+    // equirectangular distance; nodes we compare are never far apart
+    static double metersBetween(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS_M * Math.sqrt(x * x + y * y);
+    }
+
+    private static long cellKey(double pointLat, double pointLon) {
+        return cellKey((int) Math.floor(pointLat / CELL_DEGREES), (int) Math.floor(pointLon / CELL_DEGREES));
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    public static class Builder {
+
+        private double[] lat = new double[1024];
+        private double[] lon = new double[1024];
+        private int nodeCount;
+
+        private int[] edgeFrom = new int[1024];
+        private int[] edgeTo = new int[1024];
+        private float[] edgeSeconds = new float[1024];
+        private int[] edgeMeters = new int[1024];
+        private int edgeCount;
+
+        /**
+         * @return index of the new node, used when adding edges
+         */
+        public int addNode(double nodeLat, double nodeLon) {
+            if (nodeCount == lat.length) {
+                lat = Arrays.copyOf(lat, nodeCount * 2);
+                lon = Arrays.copyOf(lon, nodeCount * 2);
+            }
+            lat[nodeCount] = nodeLat;
+            lon[nodeCount] = nodeLon;
+            return nodeCount++;
+        }
+
+        public Builder addEdge(int from, int to, int meters, float seconds) {
+            if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount)
+                throw new IllegalArgumentException("Edge refers to an unknown node: " + from + " -> " + to);
+            if (meters < 0 || seconds < 0)
+                throw new IllegalArgumentException("Edge length and time cannot be negative");
+            if (edgeCount == edgeFrom.length) {
+                int capacity = edgeCount * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeSeconds = Arrays.copyOf(edgeSeconds, capacity);
+                edgeMeters = Arrays.copyOf(edgeMeters, capacity);
+            }
+            edgeFrom[edgeCount] = from;
+            edgeTo[edgeCount] = to;
+            edgeSeconds[edgeCount] = seconds;
+            edgeMeters[edgeCount] = meters;
+            edgeCount++;
+            return this;
+        }
+
+        public RoadGraph build() {
+            return new RoadGraph(this);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.luv2code.springboot.cruddemo.routing;
+
+public class RouteResult {
+
+    private final double meters;
+    private final double seconds;
+
+    public RouteResult(double meters, double seconds) {
+        this.meters = meters;
+        this.seconds = seconds;
+    }
+
+    public double getMeters() {
+        return meters;
+    }
+
+    public double getSeconds() {
+        return seconds;
+    }
+
+    public double getKm() {
+        return meters / 1000.0;
+    }
+
+    public double getMinutes() {
+        return seconds / 60.0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.luv2code.springboot.cruddemo.routing;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable table of observed driving speeds, in km/h, per region and hour of
+ * the week.
+ *
+ * Regions are square lat/lon cells keyed by {@link #cellKey}; each cell maps to
+ * a row of {@link #HOURS_PER_WEEK} speeds. A cell hour without enough history
+ * is NaN and falls back to the city-wide speed for that hour, which may itself
+ * be NaN. Lookups are a hash probe and an array read.
+ */
+public class SpeedProfile {
+
+    public static final int HOURS_PER_WEEK = 7 * 24;
+
+    private final double cellDegrees;
+    private final Map<Long, float[]> cellSpeeds;
+    private final float[] overallSpeeds;
+
+    public SpeedProfile(double cellDegrees, Map<Long, float[]> cellSpeeds, float[] overallSpeeds) {
+        if (overallSpeeds.length != HOURS_PER_WEEK)
+            throw new IllegalArgumentException("Expected " + HOURS_PER_WEEK + " hourly speeds");
+        this.cellDegrees = cellDegrees;
+        this.cellSpeeds = Map.copyOf(cellSpeeds);
+        this.overallSpeeds = overallSpeeds.clone();
+    }
+
+    public static SpeedProfile empty(double cellDegrees) {
+        float[] unknown = new float[HOURS_PER_WEEK];
+        Arrays.fill(unknown, Float.NaN);
+        return new SpeedProfile(cellDegrees, Map.of(), unknown);
+    }
+
+    /**
+     * @return learned speed in km/h for trips starting at the point and time,
+     *         or NaN when there is no history to go on
+     */
+    public double speedKmh(double lat, double lon, LocalDateTime at) {
+        int hour = hourOfWeek(at);
+        float[] row = cellSpeeds.get(cellKey(lat, lon, cellDegrees));
+        if (row != null && !Float.isNaN(row[hour]))
+            return row[hour];
+        return overallSpeeds[hour];
+    }
+
+    public int getCellCount() {
+        return cellSpeeds.size();
+    }
+
+    // Monday 00:00 is hour 0
+    public static int hourOfWeek(LocalDateTime at) {
+        return (at.getDayOfWeek().getValue() - 1) * 24 + at.getHour();
+    }
+
+    public static long cellKey(double lat, double lon, double cellDegrees) {
+        long row = (long) Math.floor(lat / cellDegrees);
+        long col = (long) Math.floor(lon / cellDegrees);
+        return (row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,163 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.cache.DriverScheduleIndex;
+import com.luv2code.springboot.cruddemo.dao.DriverDAO;
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dispatch.SparseAssignment;
+import com.luv2code.springboot.cruddemo.dto.DriverCandidateDTO;
+import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import com.luv2code.springboot.cruddemo.messaging.TripEvent;
+import com.luv2code.springboot.cruddemo.util.TripScheduleUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional dispatch mode that assigns drivers to trips instead of waiting
+ * for drivers to accept them.
+ *
+ * Every {@code dispatch.batch.interval-ms} the REQUESTED trips starting within
+ * {@code dispatch.batch.horizon-minutes} are collected together with their
+ * nearest eligible drivers (see {@link DriverMatchingService}), and the whole
+ * window is solved as one assignment problem over that sparse cost matrix, so
+ * a driver goes to the trip where they save the fleet the most pickup time
+ * rather than to whichever trip asked first.
+ *
+ * Each assignment commits in a transaction of its own and locks the trip
+ * before the driver, the order acceptTrip uses, so dispatch never holds more
+ * than two row locks at a time. When a driver accepting a trip still
+ * collides with it on a lock, only that one assignment is lost and the trip
+ * stays requested for the next window.
+ *
+ * Enabled with {@code dispatch.batch.enabled=true}; drivers can still accept
+ * trips themselves alongside it.
+ */
+@Service
+@ConditionalOnProperty(name = "dispatch.batch.enabled", havingValue = "true")
+public class BatchDispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchDispatchService.class);
+
+    private final TripDAO tripDAO;
+    private final DriverDAO driverDAO;
+    private final DriverMatchingService driverMatchingService;
+    private final DriverLocationService driverLocationService;
+    private final DriverScheduleIndex driverScheduleIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long horizonMinutes;
+    private final int maxTrips;
+    private final int candidatesPerTrip;
+
+    public BatchDispatchService(TripDAO tripDAO, DriverDAO driverDAO,
+            DriverMatchingService driverMatchingService, DriverLocationService driverLocationService,
+            DriverScheduleIndex driverScheduleIndex, ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${dispatch.batch.horizon-minutes:20}") long horizonMinutes,
+            @Value("${dispatch.batch.max-trips:500}") int maxTrips,
+            @Value("${dispatch.batch.candidates-per-trip:10}") int candidatesPerTrip) {
+        this.tripDAO = tripDAO;
+        this.driverDAO = driverDAO;
+        this.driverMatchingService = driverMatchingService;
+        this.driverLocationService = driverLocationService;
+        this.driverScheduleIndex = driverScheduleIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.horizonMinutes = horizonMinutes;
+        this.maxTrips = maxTrips;
+        this.candidatesPerTrip = candidatesPerTrip;
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.batch.interval-ms:2000}")
+    public void dispatch() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        List<Trip> trips = tripDAO.findRequestedStartingBetween(now, now.plusMinutes(horizonMinutes), maxTrips)
+                .stream()
+                .filter(trip -> trip.getPickupLat() != null && trip.getPickupLon() != null)
+                .toList();
+        if (trips.isEmpty())
+            return;
+
+        Map<Long, List<DriverCandidateDTO>> candidates = driverMatchingService.candidatesFor(trips, candidatesPerTrip);
+
+        // sparse cost matrix: trips are bidders, drivers are objects, benefit is minus the score in seconds
+        Map<Long, Integer> driverIndex = new HashMap<>();
+        List<Long> driverIds = new ArrayList<>();
+        int[] start = new int[trips.size() + 1];
+        List<Integer> objects = new ArrayList<>();
+        List<Long> benefits = new ArrayList<>();
+        for (int i = 0; i < trips.size(); i++) {
+            start[i] = objects.size();
+            for (DriverCandidateDTO candidate : candidates.get(trips.get(i).getId())) {
+                Integer object = driverIndex.get(candidate.getDriverId());
+                if (object == null) {
+                    object = driverIds.size();
+                    driverIndex.put(candidate.getDriverId(), object);
+                    driverIds.add(candidate.getDriverId());
+                }
+                objects.add(object);
+                benefits.add(-Math.round(candidate.getScore() * 60));
+            }
+        }
+        start[trips.size()] = objects.size();
+
+        int[] assignment = SparseAssignment.solve(trips.size(), driverIds.size(), start,
+                objects.stream().mapToInt(Integer::intValue).toArray(),
+                benefits.stream().mapToLong(Long::longValue).toArray());
+
+        int assigned = 0;
+        for (int i = 0; i < trips.size(); i++) {
+            if (assignment[i] < 0)
+                continue;
+            Trip trip = trips.get(i);
+            long driverId = driverIds.get(assignment[i]);
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> assign(status, trip, driverId))))
+                    assigned++;
+            } catch (PessimisticLockingFailureException e) {
+                log.debug("Could not assign trip {} to driver {}", trip.getId(), driverId, e);
+            }
+        }
+        log.info("Dispatched {} of {} requested trips to {} candidate drivers in {} ms", assigned, trips.size(),
+                driverIds.size(), System.currentTimeMillis() - started);
+    }
+
+    // false when the trip or the driver was taken by someone accepting since the window was read
+    private boolean assign(TransactionStatus status, Trip trip, long driverId) {
+        Driver driver = driverDAO.findById(driverId);
+        if (driver == null || !driver.isAvailable())
+            return false;
+        if (!tripDAO.claimRequestedTrip(trip.getId(), driver))
+            return false;
+        // the slot update locks the driver row; under it, check the schedule against bookings committed
+        // since the candidates were read
+        if (!driverDAO.reserveTripSlot(driver)
+                || driverScheduleIndex.recheckConflict(driverId, trip) != TripScheduleUtil.Conflict.NONE) {
+            status.setRollbackOnly();
+            return false;
+        }
+        if (!driver.isAvailable())
+            driverLocationService.setAvailable(driver.getId(), false);
+        trip.setDriver(driver);
+        trip.setStatus(TripStatus.ACCEPTED);
+        driverScheduleIndex.tripScheduled(driver.getId(), trip);
+        eventPublisher.publishEvent(TripEvent.removed(TripEvent.Type.TAKEN, trip));
+        return true;
+    }
+}
@@ -1,6 +1,7 @@
 package com.luv2code.springboot.cruddemo.service;
 
 import com.luv2code.springboot.cruddemo.dao.CarDAO;
+import com.luv2code.springboot.cruddemo.datasource.ReplicaSafe;
 import com.luv2code.springboot.cruddemo.entites.Car;
 import com.luv2code.springboot.cruddemo.entites.Driver;
 import com.luv2code.springboot.cruddemo.exception.CarHasDriverException;
@@ -22,6 +23,7 @@ public class CarServiceImpl implements CarService {
     private DriverService driverService;
 
     @Override
+    @ReplicaSafe
     public List<Car> findAll() {
         return carDAO.findAll();
     }
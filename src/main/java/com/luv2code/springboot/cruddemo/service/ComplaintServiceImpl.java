@@ -1,6 +1,7 @@
 package com.luv2code.springboot.cruddemo.service;
 
 import com.luv2code.springboot.cruddemo.dao.ComplaintDAO;
+import com.luv2code.springboot.cruddemo.datasource.ReplicaSafe;
 import com.luv2code.springboot.cruddemo.entites.Complaint;
 import com.luv2code.springboot.cruddemo.entites.ComplaintStatus;
 import com.luv2code.springboot.cruddemo.entites.Customer;
@@ -25,7 +26,7 @@ public class ComplaintServiceImpl implements ComplaintService{
         this.tripService = tripService;
     }
 
-    @Transactional
+    @ReplicaSafe
     @Override
     public List<Complaint> findAll() {
         return complaintDAO.findAll();
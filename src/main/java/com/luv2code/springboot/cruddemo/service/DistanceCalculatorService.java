@@ -1,11 +1,16 @@
 package com.luv2code.springboot.cruddemo.service;
 
+import com.luv2code.springboot.cruddemo.geo.GeoPoints;
 import org.springframework.stereotype.Service;
 
 @Service
 public class DistanceCalculatorService {
 
     private static final double EARTH_RADIUS_KM = 6371.0;
+
+    // beyond roughly 100 km the flat-earth approximation is no longer worth its error
+    private static final double FAST_PATH_MAX_DELTA_RAD = Math.toRadians(1.0);
+
     public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
 
         double dLat = Math.toRadians(lat2 - lat1);
@@ -19,4 +24,68 @@ public class DistanceCalculatorService {
 
         return EARTH_RADIUS_KM * c;
     }
+
+    /**
+     * Haversine distance in km from one origin to every point, written to
+     * {@code out[0..points.size())}.
+     */
+    public void distancesFrom(double originLat, double originLon, GeoPoints points, double[] out) {
+        double latRad = Math.toRadians(originLat);
+        double lonRad = Math.toRadians(originLon);
+        double cosLat = Math.cos(latRad);
+        for (int i = 0; i < points.size(); i++) {
+            out[i] = haversine(latRad, lonRad, cosLat, points.latRad(i), points.lonRad(i), points.cosLat(i));
+        }
+    }
+
+    /**
+     * Haversine distance in km between every pair, row-major: the distance from
+     * {@code from[i]} to {@code to[j]} is at {@code i * to.size() + j}.
+     */
+    public double[] distanceMatrix(GeoPoints from, GeoPoints to) {
+        int columns = to.size();
+        double[] out = new double[from.size() * columns];
+        for (int i = 0; i < from.size(); i++) {
+            double latRad = from.latRad(i);
+            double lonRad = from.lonRad(i);
+            double cosLat = from.cosLat(i);
+            int row = i * columns;
+            for (int j = 0; j < columns; j++) {
+                out[row + j] = haversine(latRad, lonRad, cosLat, to.latRad(j), to.lonRad(j), to.cosLat(j));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Like {@link #distancesFrom} but uses the equirectangular approximation
+     * for points within 1 degree of the origin in both latitude and longitude,
+     * falling back to haversine for anything further. Within that range the
+     * result stays within 0.1% of haversine up to 70 degrees latitude, which is
+     * plenty for ranking nearby drivers or previewing fares.
+     */
+    public void approximateDistancesFrom(double originLat, double originLon, GeoPoints points, double[] out) {
+        double latRad = Math.toRadians(originLat);
+        double lonRad = Math.toRadians(originLon);
+        double cosLat = Math.cos(latRad);
+        for (int i = 0; i < points.size(); i++) {
+            double dLat = points.latRad(i) - latRad;
+            double dLon = points.lonRad(i) - lonRad;
+            if (Math.abs(dLat) < FAST_PATH_MAX_DELTA_RAD && Math.abs(dLon) < FAST_PATH_MAX_DELTA_RAD) {
+                // mean of the two cosines stands in for cos of the mean latitude, so no trig here
+                double x = dLon * 0.5 * (cosLat + points.cosLat(i));
+                out[i] = EARTH_RADIUS_KM * Math.sqrt(x * x + dLat * dLat);
+            } else {
+                out[i] = haversine(latRad, lonRad, cosLat, points.latRad(i), points.lonRad(i), points.cosLat(i));
+            }
+        }
+    }
+
+    private static double haversine(double lat1Rad, double lon1Rad, double cosLat1,
+            double lat2Rad, double lon2Rad, double cosLat2) {
+        double sinHalfDLat = Math.sin((lat2Rad - lat1Rad) / 2);
+        double sinHalfDLon = Math.sin((lon2Rad - lon1Rad) / 2);
+        double a = sinHalfDLat * sinHalfDLat + cosLat1 * cosLat2 * sinHalfDLon * sinHalfDLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
 }
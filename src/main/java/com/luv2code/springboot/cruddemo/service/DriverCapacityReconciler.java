@@ -0,0 +1,69 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.dao.DriverDAO;
+import com.luv2code.springboot.cruddemo.dto.DriverCapacityRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Brings every driver's {@code currentBookedTrips} and {@code available}
+ * back in line with the trips table.
+ *
+ * Booking and releasing slots are single bounded updates, but a counter can
+ * still drift, e.g. when a trip is ended twice or rows are edited by hand.
+ * This job walks the drivers in id order, {@code drivers.capacity.batch-size}
+ * at a time, and corrects the ones whose counters disagree with their
+ * ACCEPTED and ONGOING trips. A correction only applies if the driver has not
+ * changed since it was read; anything it skips is picked up on the next run.
+ */
+@Service
+public class DriverCapacityReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverCapacityReconciler.class);
+
+    private final DriverDAO driverDAO;
+    private final DriverLocationService driverLocationService;
+    private final int batchSize;
+
+    public DriverCapacityReconciler(DriverDAO driverDAO, DriverLocationService driverLocationService,
+            @Value("${drivers.capacity.batch-size:1000}") int batchSize) {
+        this.driverDAO = driverDAO;
+        this.driverLocationService = driverLocationService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${drivers.capacity.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        int checked = 0;
+        int corrected = 0;
+        try {
+            long afterId = 0;
+            List<DriverCapacityRow> batch;
+            do {
+                batch = driverDAO.findCapacityRows(afterId, batchSize);
+                for (DriverCapacityRow row : batch) {
+                    if (row.isDrifted() && driverDAO.correctCapacity(row)) {
+                        log.warn("Driver {} had {} booked trips (available={}), corrected to {} (available={})",
+                                row.getDriverId(), row.getBookedTrips(), row.isAvailable(),
+                                row.getExpectedBookedTrips(), row.isExpectedAvailable());
+                        if (row.isAvailable() != row.isExpectedAvailable())
+                            driverLocationService.setAvailable(row.getDriverId(), row.isExpectedAvailable());
+                        corrected++;
+                    }
+                }
+                checked += batch.size();
+                if (!batch.isEmpty())
+                    afterId = batch.get(batch.size() - 1).getDriverId();
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Driver capacity reconciliation stopped after {} drivers", checked, e);
+        }
+        if (corrected > 0)
+            log.info("Corrected booking counters of {} of {} drivers", corrected, checked);
+    }
+}
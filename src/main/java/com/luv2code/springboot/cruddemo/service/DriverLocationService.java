@@ -0,0 +1,195 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.dto.DriverLocationStatsDTO;
+import com.luv2code.springboot.cruddemo.dto.NearbyDriverDTO;
+import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.exception.DriverNotFoundException;
+import com.luv2code.springboot.cruddemo.exception.InvalidLocationException;
+import com.luv2code.springboot.cruddemo.exception.LocationUpdateRejectedException;
+import com.luv2code.springboot.cruddemo.geo.DriverLocationIndex;
+import com.luv2code.springboot.cruddemo.geo.LocationPing;
+import com.luv2code.springboot.cruddemo.util.MpscRingBuffer;
+import com.luv2code.springboot.cruddemo.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Where drivers are right now, for dispatch.
+ *
+ * Positions live in memory in a {@link DriverLocationIndex}; nearby searches
+ * never touch the database. Drivers whose last report is older than
+ * {@code drivers.location.max-age-seconds} are treated as offline and left out
+ * of search results.
+ *
+ * Pings are accepted into a bounded lock-free ring buffer and applied by a
+ * single drainer thread, which also hands them to the
+ * {@link DriverLocationWriter} for batched storage. When the buffer is full
+ * the ping is rejected rather than making the request wait.
+ */
+@Service
+public class DriverLocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverLocationService.class);
+
+    private static final long DRAIN_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final DriverService driverService;
+    private final DriverLocationWriter driverLocationWriter;
+    private final DriverLocationIndex index;
+    private final MpscRingBuffer<LocationPing> pings;
+    private final long maxAgeMillis;
+    private final double defaultRadiusMeters;
+    private final double maxRadiusMeters;
+    private final int maxResults;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private Thread drainer;
+
+    public DriverLocationService(@Lazy DriverService driverService, DriverLocationWriter driverLocationWriter,
+            @Value("${drivers.location.queue-capacity:65536}") int queueCapacity,
+            @Value("${drivers.location.cell-degrees:0.01}") double cellDegrees,
+            @Value("${drivers.location.max-age-seconds:120}") long maxAgeSeconds,
+            @Value("${drivers.nearby.default-radius-meters:5000}") double defaultRadiusMeters,
+            @Value("${drivers.nearby.max-radius-meters:20000}") double maxRadiusMeters,
+            @Value("${drivers.nearby.max-results:50}") int maxResults) {
+        this.driverService = driverService;
+        this.driverLocationWriter = driverLocationWriter;
+        this.index = new DriverLocationIndex(cellDegrees);
+        this.pings = new MpscRingBuffer<>(queueCapacity);
+        this.maxAgeMillis = maxAgeSeconds * 1000;
+        this.defaultRadiusMeters = defaultRadiusMeters;
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.maxResults = maxResults;
+    }
+
+    @PostConstruct
+    public void startDrainer() {
+        running = true;
+        drainer = new Thread(this::drain, "driver-location-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stopDrainer() throws InterruptedException {
+        running = false;
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+        // whatever is still queued goes to the writer before it flushes on shutdown
+        applyQueued();
+    }
+
+    /**
+     * @param recordedAtMillis when the phone took the reading; null or a time
+     *                         in the future means now
+     * @throws LocationUpdateRejectedException when the ingestion queue is full
+     */
+    public void updateLocation(long driverId, Double lat, Double lon, Long recordedAtMillis) {
+        validate(lat, lon);
+        long now = System.currentTimeMillis();
+        long recordedAt = recordedAtMillis == null ? now : Math.min(recordedAtMillis, now);
+        LocationPing ping = new LocationPing(driverId, lat, lon, recordedAt);
+
+        // the driver row is only read the first time a driver reports in, and that
+        // first ping is applied right away so the driver is indexed with its availability
+        if (!index.contains(driverId)) {
+            Driver driver = driverService.findById(driverId);
+            if (driver == null)
+                throw new DriverNotFoundException("Driver not found");
+            apply(ping, driver.isAvailable());
+            accepted.incrementAndGet();
+            return;
+        }
+
+        if (!pings.offer(ping)) {
+            dropped.incrementAndGet();
+            throw new LocationUpdateRejectedException("Too many location updates right now, try again shortly");
+        }
+        accepted.incrementAndGet();
+    }
+
+    public DriverLocationStatsDTO stats() {
+        return new DriverLocationStatsDTO(accepted.get(), dropped.get(), pings.size(), pings.capacity(),
+                index.size(), driverLocationWriter.pendingPositions(), driverLocationWriter.pendingBreadcrumbs(),
+                driverLocationWriter.getFlushedPositions(), driverLocationWriter.getFlushedBreadcrumbs(),
+                driverLocationWriter.getFailedFlushes(), driverLocationWriter.getLastFlushAt());
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                if (applyQueued() == 0)
+                    LockSupport.parkNanos(DRAIN_IDLE_NANOS);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply driver location pings", e);
+            }
+        }
+    }
+
+    private int applyQueued() {
+        int applied = 0;
+        LocationPing ping;
+        while ((ping = pings.poll()) != null) {
+            // queued pings only come from drivers already in the index, so the flag is not used
+            apply(ping, true);
+            applied++;
+        }
+        return applied;
+    }
+
+    private void apply(LocationPing ping, boolean availableIfNew) {
+        index.update(ping.getDriverId(), ping.getLat(), ping.getLon(), ping.getRecordedAtMillis(), availableIfNew);
+        driverLocationWriter.record(ping);
+    }
+
+    /**
+     * Mirrors a change of the driver's availability flag. Inside a transaction
+     * the index is only touched once it commits, so a rolled back booking does
+     * not hide the driver from dispatch.
+     */
+    public void setAvailable(long driverId, boolean available) {
+        TransactionUtil.afterCommit(() -> index.setAvailable(driverId, available));
+    }
+
+    /**
+     * The search walks grid rings out to the radius, so both the radius and
+     * the number of results are capped by configuration.
+     *
+     * @param limit        at most this many drivers, closest first; null for
+     *                     {@code drivers.nearby.max-results}
+     * @param radiusMeters search radius, at most
+     *                     {@code drivers.nearby.max-radius-meters}; null for
+     *                     the configured default
+     */
+    public List<NearbyDriverDTO> findNearby(Double lat, Double lon, Integer limit, Double radiusMeters) {
+        validate(lat, lon);
+        double radius = radiusMeters != null ? radiusMeters : defaultRadiusMeters;
+        if (!(radius > 0))
+            throw new InvalidLocationException("Search radius must be positive");
+        if (radius > maxRadiusMeters)
+            throw new InvalidLocationException("Search radius cannot exceed " + Math.round(maxRadiusMeters)
+                    + " meters");
+        if (limit != null && limit <= 0)
+            throw new InvalidLocationException("limit must be positive");
+        long notBefore = System.currentTimeMillis() - maxAgeMillis;
+        return index.nearest(lat, lon, limit == null ? maxResults : Math.min(limit, maxResults), radius, notBefore);
+    }
+
+    private void validate(Double lat, Double lon) {
+        if (lat == null || lon == null)
+            throw new InvalidLocationException("Latitude and longitude are required");
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180)
+            throw new InvalidLocationException("Latitude or longitude is out of range");
+    }
+}
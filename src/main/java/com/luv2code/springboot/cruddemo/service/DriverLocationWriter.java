@@ -0,0 +1,126 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.dao.DriverLocationDAO;
+import com.luv2code.springboot.cruddemo.geo.LocationPing;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind storage for driver positions.
+ *
+ * Between flushes only the newest position per driver is kept, plus at most
+ * one breadcrumb per driver every {@code drivers.location.breadcrumb-interval-seconds}.
+ * A scheduled flush writes both as JDBC batches. If a flush fails the
+ * positions are kept for the next attempt (unless a newer one arrived) and
+ * that flush's breadcrumbs are dropped, so a database outage cannot grow the
+ * backlog without bound.
+ */
+@Service
+public class DriverLocationWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverLocationWriter.class);
+
+    private final DriverLocationDAO driverLocationDAO;
+    private final long breadcrumbIntervalMillis;
+
+    private final Object lock = new Object();
+    // guarded by lock
+    private Map<Long, LocationPing> pendingPositions = new HashMap<>();
+    private List<LocationPing> pendingBreadcrumbs = new ArrayList<>();
+    private final Map<Long, Long> lastBreadcrumbAt = new HashMap<>();
+
+    private final AtomicLong flushedPositions = new AtomicLong();
+    private final AtomicLong flushedBreadcrumbs = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushAt;
+
+    public DriverLocationWriter(DriverLocationDAO driverLocationDAO,
+            @Value("${drivers.location.breadcrumb-interval-seconds:15}") long breadcrumbIntervalSeconds) {
+        this.driverLocationDAO = driverLocationDAO;
+        this.breadcrumbIntervalMillis = breadcrumbIntervalSeconds * 1000;
+    }
+
+    public void record(LocationPing ping) {
+        synchronized (lock) {
+            pendingPositions.merge(ping.getDriverId(), ping, DriverLocationWriter::newer);
+            Long last = lastBreadcrumbAt.get(ping.getDriverId());
+            if (last == null || ping.getRecordedAtMillis() - last >= breadcrumbIntervalMillis) {
+                pendingBreadcrumbs.add(ping);
+                lastBreadcrumbAt.put(ping.getDriverId(), ping.getRecordedAtMillis());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${drivers.location.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        Map<Long, LocationPing> positions;
+        List<LocationPing> breadcrumbs;
+        synchronized (lock) {
+            if (pendingPositions.isEmpty() && pendingBreadcrumbs.isEmpty())
+                return;
+            positions = pendingPositions;
+            breadcrumbs = pendingBreadcrumbs;
+            pendingPositions = new HashMap<>();
+            pendingBreadcrumbs = new ArrayList<>();
+        }
+
+        try {
+            driverLocationDAO.upsertPositions(new ArrayList<>(positions.values()));
+            flushedPositions.addAndGet(positions.size());
+            driverLocationDAO.insertBreadcrumbs(breadcrumbs);
+            flushedBreadcrumbs.addAndGet(breadcrumbs.size());
+            lastFlushAt = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            log.warn("Could not store {} driver positions and {} breadcrumbs, positions will be retried",
+                    positions.size(), breadcrumbs.size(), e);
+            synchronized (lock) {
+                positions.values().forEach(ping ->
+                        pendingPositions.merge(ping.getDriverId(), ping, DriverLocationWriter::newer));
+            }
+        }
+    }
+
+    public int pendingPositions() {
+        synchronized (lock) {
+            return pendingPositions.size();
+        }
+    }
+
+    public int pendingBreadcrumbs() {
+        synchronized (lock) {
+            return pendingBreadcrumbs.size();
+        }
+    }
+
+    public long getFlushedPositions() {
+        return flushedPositions.get();
+    }
+
+    public long getFlushedBreadcrumbs() {
+        return flushedBreadcrumbs.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getLastFlushAt() {
+        return lastFlushAt;
+    }
+
+    private static LocationPing newer(LocationPing a, LocationPing b) {
+        return b.getRecordedAtMillis() >= a.getRecordedAtMillis() ? b : a;
+    }
+}
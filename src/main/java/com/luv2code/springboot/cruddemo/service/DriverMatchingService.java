@@ -0,0 +1,153 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.cache.DriverScheduleIndex;
+import com.luv2code.springboot.cruddemo.dao.DriverDAO;
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.DriverCandidateDTO;
+import com.luv2code.springboot.cruddemo.dto.NearbyDriverDTO;
+import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import com.luv2code.springboot.cruddemo.exception.InvalidTripQueryException;
+import com.luv2code.springboot.cruddemo.exception.TripNotFoundException;
+import com.luv2code.springboot.cruddemo.exception.TripNotRequestedException;
+import com.luv2code.springboot.cruddemo.util.TripScheduleUtil;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranks drivers for a REQUESTED trip.
+ *
+ * Candidates are the available drivers closest to the pickup, taken from the
+ * in-memory location index. Drivers without a car, or whose schedule the trip
+ * would not fit by the rules {@code acceptTrip} enforces, are dropped. The
+ * rest are ordered by a score in minutes: the estimated time to the pickup,
+ * less {@code matching.rating-weight-minutes} per rating star.
+ */
+@Service
+public class DriverMatchingService {
+
+    // used until there is trip history for the place and hour
+    private static final double DEFAULT_SPEED_KMH = 40;
+
+    private final TripDAO tripDAO;
+    private final DriverDAO driverDAO;
+    private final DriverLocationService driverLocationService;
+    private final LocationService locationService;
+    private final SpeedProfileService speedProfileService;
+    private final DriverScheduleIndex driverScheduleIndex;
+    private final int candidatePool;
+    private final double searchRadiusMeters;
+    private final double ratingWeightMinutes;
+
+    public DriverMatchingService(TripDAO tripDAO, DriverDAO driverDAO,
+            DriverLocationService driverLocationService, LocationService locationService,
+            SpeedProfileService speedProfileService, DriverScheduleIndex driverScheduleIndex,
+            @Value("${matching.candidate-pool:50}") int candidatePool,
+            @Value("${matching.search-radius-meters:8000}") double searchRadiusMeters,
+            @Value("${matching.rating-weight-minutes:2}") double ratingWeightMinutes) {
+        this.tripDAO = tripDAO;
+        this.driverDAO = driverDAO;
+        this.driverLocationService = driverLocationService;
+        this.locationService = locationService;
+        this.speedProfileService = speedProfileService;
+        this.driverScheduleIndex = driverScheduleIndex;
+        this.candidatePool = candidatePool;
+        this.searchRadiusMeters = searchRadiusMeters;
+        this.ratingWeightMinutes = ratingWeightMinutes;
+    }
+
+    /**
+     * @return up to {@code limit} drivers who could take the trip, best first
+     */
+    @Transactional
+    public List<DriverCandidateDTO> rankCandidates(long tripId, int limit) {
+        if (limit <= 0)
+            throw new InvalidTripQueryException("limit must be positive");
+        Trip trip = tripDAO.findById(tripId);
+        if (trip == null)
+            throw new TripNotFoundException("Trip not found");
+        if (trip.getStatus() != TripStatus.REQUESTED)
+            throw new TripNotRequestedException("This trip is not waiting for a driver.");
+
+        List<DriverCandidateDTO> candidates = candidatesFor(List.of(trip), candidatePool).get(trip.getId());
+        return candidates.size() > limit ? candidates.subList(0, limit) : candidates;
+    }
+
+    /**
+     * Candidates for several trips at once, each list best first. A driver may
+     * be a candidate for more than one trip. Costs one query however many
+     * trips are passed, plus a schedule load for drivers not seen before.
+     *
+     * @param perTrip nearest drivers to consider for each trip
+     */
+    @Transactional
+    public Map<Long, List<DriverCandidateDTO>> candidatesFor(List<Trip> trips, int perTrip) {
+        Map<Long, List<NearbyDriverDTO>> nearbyByTrip = new HashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (Trip trip : trips) {
+            double[] pickup = pickupCoordinates(trip);
+            List<NearbyDriverDTO> nearby = driverLocationService.findNearby(pickup[0], pickup[1], perTrip,
+                    searchRadiusMeters);
+            nearbyByTrip.put(trip.getId(), nearby);
+            nearby.forEach(position -> ids.add(position.getDriverId()));
+        }
+
+        Map<Long, Driver> drivers = new HashMap<>();
+        for (Driver driver : driverDAO.findAvailableWithCarByIds(new ArrayList<>(ids)))
+            drivers.put(driver.getId(), driver);
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<DriverCandidateDTO>> result = new HashMap<>();
+        for (Trip trip : trips) {
+            List<DriverCandidateDTO> candidates = new ArrayList<>();
+            for (NearbyDriverDTO position : nearbyByTrip.get(trip.getId())) {
+                Driver driver = drivers.get(position.getDriverId());
+                if (driver == null)
+                    continue;
+                if (driverScheduleIndex.conflict(driver.getId(), trip) != TripScheduleUtil.Conflict.NONE)
+                    continue;
+                candidates.add(score(driver, position, now));
+            }
+            candidates.sort(Comparator.comparingDouble(DriverCandidateDTO::getScore));
+            result.put(trip.getId(), candidates);
+        }
+        return result;
+    }
+
+    /**
+     * @return the best driver for the trip, or null if no driver nearby can take it
+     */
+    @Transactional
+    public Driver findBestDriver(long tripId) {
+        List<DriverCandidateDTO> best = rankCandidates(tripId, 1);
+        return best.isEmpty() ? null : driverDAO.findById(best.get(0).getDriverId());
+    }
+
+    private DriverCandidateDTO score(Driver driver, NearbyDriverDTO position, LocalDateTime now) {
+        double speedKmh = speedProfileService.current().speedKmh(position.getLat(), position.getLon(), now);
+        if (Double.isNaN(speedKmh))
+            speedKmh = DEFAULT_SPEED_KMH;
+        double pickupMinutes = position.getDistanceMeters() / 1000.0 / speedKmh * 60;
+        double score = pickupMinutes - ratingWeightMinutes * driver.getRating();
+        return new DriverCandidateDTO(driver.getId(), driver.getFirstName(), driver.getLastName(),
+                driver.getRating(), position.getDistanceMeters(), pickupMinutes, score);
+    }
+
+    // trips booked before coordinates were stored on the trip are geocoded again
+    private double[] pickupCoordinates(Trip trip) {
+        if (trip.getPickupLat() != null && trip.getPickupLon() != null)
+            return new double[] { trip.getPickupLat(), trip.getPickupLon() };
+        return locationService.getCoordinates(trip.getPickupLocation());
+    }
+}
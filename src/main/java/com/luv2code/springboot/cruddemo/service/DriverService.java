@@ -9,8 +9,6 @@ import java.util.List;
 
 @Service
 public interface DriverService {
-    public Driver findFirstAvailableDriver();
-
     public Driver save(Driver driver);
 
     public Driver update(Driver driver);
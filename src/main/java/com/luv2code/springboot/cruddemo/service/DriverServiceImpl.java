@@ -26,12 +26,6 @@ public class DriverServiceImpl implements DriverService {
         this.tripService = tripService;
     }
 
-    @Transactional
-    @Override
-    public Driver findFirstAvailableDriver() {
-        return driverDAO.findFirstAvailableDriver();
-    }
-
     @Transactional
     @Override
     public Driver save(Driver driver) {
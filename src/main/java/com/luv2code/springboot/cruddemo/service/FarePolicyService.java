@@ -0,0 +1,93 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.pricing.FarePolicy;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Holds the active {@link FarePolicy}.
+ *
+ * Defaults come from application.properties. If {@code fare.policy.file} points
+ * at a properties file with the same {@code fare.*} keys, its values override
+ * the defaults, and the file is re-read whenever it changes. A file that fails
+ * to parse or validate is ignored and the previous policy stays active.
+ */
+@Service
+public class FarePolicyService {
+
+    private static final Logger log = LoggerFactory.getLogger(FarePolicyService.class);
+
+    private final FarePolicy defaultPolicy;
+    private final String policyFile;
+
+    private volatile FarePolicy policy;
+    private long loadedModifiedTime = -1;
+
+    public FarePolicyService(@Value("${fare.base-minor:1180}") long baseMinor,
+            @Value("${fare.per-km-minor:430}") long perKmMinor,
+            @Value("${fare.surcharge.premium:2500}") long premiumMinor,
+            @Value("${fare.surcharge.child-seat:1500}") long childSeatMinor,
+            @Value("${fare.policy.file:}") String policyFile) {
+        this.defaultPolicy = new FarePolicy(baseMinor, perKmMinor, new long[] { premiumMinor, childSeatMinor });
+        this.policy = defaultPolicy;
+        this.policyFile = policyFile;
+    }
+
+    public FarePolicy current() {
+        return policy;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${fare.policy.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (policyFile.isBlank())
+            return;
+        Path path = Paths.get(policyFile);
+        try {
+            if (!Files.exists(path))
+                return;
+            long modifiedTime = Files.getLastModifiedTime(path).toMillis();
+            if (modifiedTime == loadedModifiedTime)
+                return;
+            policy = readPolicy(path);
+            loadedModifiedTime = modifiedTime;
+            log.info("Loaded fare policy from {}", path);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring fare policy file {}, keeping the current policy", path, e);
+        }
+    }
+
+    private FarePolicy readPolicy(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        long[] surcharges = new long[FarePolicy.SURCHARGE_RULES.length];
+        for (int rule = 0; rule < surcharges.length; rule++) {
+            surcharges[rule] = readLong(properties, "fare.surcharge." + FarePolicy.SURCHARGE_RULES[rule],
+                    defaultPolicy.getSurchargeMinor(rule));
+        }
+        return new FarePolicy(
+                readLong(properties, "fare.base-minor", defaultPolicy.getBaseMinor()),
+                readLong(properties, "fare.per-km-minor", defaultPolicy.getPerKmMinor()),
+                surcharges);
+    }
+
+    private long readLong(Properties properties, String key, long fallback) {
+        String value = properties.getProperty(key);
+        return value == null ? fallback : Long.parseLong(value.trim());
+    }
+}
@@ -0,0 +1,103 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.geo.PlaceNameIndex;
+import com.luv2code.springboot.cruddemo.util.LocationNameUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolves locations from a local place-name file and only calls Nominatim for
+ * names the file does not know.
+ *
+ * The file is a CSV of {@code name,lat,lon} rows (an optional header row is
+ * skipped), for example an extract of OSM places for the cities we serve.
+ * Names may contain commas as long as the last two columns are the coordinates.
+ */
+@Service
+@Primary
+public class GazetteerLocationService implements LocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(GazetteerLocationService.class);
+
+    private final NominatimLocationService nominatimLocationService;
+    private final String gazetteerFile;
+    private final int maxEdits;
+
+    private volatile PlaceNameIndex index = PlaceNameIndex.empty();
+
+    public GazetteerLocationService(NominatimLocationService nominatimLocationService,
+            @Value("${geocode.gazetteer.file:}") String gazetteerFile,
+            @Value("${geocode.gazetteer.max-edits:1}") int maxEdits) {
+        this.nominatimLocationService = nominatimLocationService;
+        this.gazetteerFile = gazetteerFile;
+        this.maxEdits = maxEdits;
+    }
+
+    @PostConstruct
+    public void loadGazetteer() {
+        if (gazetteerFile.isBlank()) {
+            log.info("No gazetteer file configured, all locations will be geocoded through Nominatim");
+            return;
+        }
+        Path path = Paths.get(gazetteerFile);
+        if (!Files.exists(path)) {
+            log.warn("Gazetteer file {} does not exist, all locations will be geocoded through Nominatim", path);
+            return;
+        }
+
+        PlaceNameIndex.Builder builder = new PlaceNameIndex.Builder();
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int lonComma = line.lastIndexOf(',');
+                int latComma = lonComma > 0 ? line.lastIndexOf(',', lonComma - 1) : -1;
+                if (latComma <= 0) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    double lat = Double.parseDouble(line.substring(latComma + 1, lonComma).trim());
+                    double lon = Double.parseDouble(line.substring(lonComma + 1).trim());
+                    String name = line.substring(0, latComma).replace("\"", "");
+                    builder.add(LocationNameUtil.normalize(name), lat, lon);
+                } catch (NumberFormatException e) {
+                    // header row or a malformed line
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read gazetteer file {}, all locations will be geocoded through Nominatim", path, e);
+            return;
+        }
+
+        index = builder.build();
+        log.info("Loaded {} places from gazetteer {} ({} lines skipped)", index.size(), path, skipped);
+    }
+
+    @Override
+    public CompletableFuture<double[]> getCoordinatesAsync(String locationName) {
+        String name = LocationNameUtil.normalize(locationName);
+        double[] coordinates = index.lookup(name, editBudget(name));
+        if (coordinates != null)
+            return CompletableFuture.completedFuture(coordinates);
+        return nominatimLocationService.getCoordinatesAsync(locationName);
+    }
+
+    // short names get no fuzzy slack: "x mall" is one edit from "x hall", a different place entirely
+    private int editBudget(String name) {
+        return name.length() < 10 ? 0 : maxEdits;
+    }
+}
@@ -1,48 +1,34 @@
 package com.luv2code.springboot.cruddemo.service;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.springframework.stereotype.Service;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-
-@Service
-public class LocationService {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public interface LocationService {
+
+    /**
+     * @return future completing with {lat, lon} of the named location, or
+     *         exceptionally when it cannot be resolved
+     */
+    public CompletableFuture<double[]> getCoordinatesAsync(String locationName);
+
+    /**
+     * @return {lat, lon} of the named location
+     */
+    public default double[] getCoordinates(String locationName) {
+        return await(getCoordinatesAsync(locationName));
+    }
 
-    public double[] getCoordinates(String locationName) {
+    /**
+     * Waits for a lookup started with {@link #getCoordinatesAsync} and rethrows
+     * its original failure rather than the CompletionException wrapper.
+     */
+    public static double[] await(CompletableFuture<double[]> lookup) {
         try {
-            String encodedLocation = URLEncoder.encode(locationName, "UTF-8");
-            String urlString = "https://nominatim.openstreetmap.org/search?q=" + encodedLocation + "&format=json&limit=1";
-
-            URL url = new URL(urlString);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("User-Agent", "SpringBootApp");
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
-
-            JSONArray jsonArray = new JSONArray(response.toString());
-            if (jsonArray.isEmpty()) {
-                throw new RuntimeException("Location not found: " + locationName);
-            }
-
-            JSONObject jsonObject = jsonArray.getJSONObject(0);
-            double lat = jsonObject.getDouble("lat");
-            double lon = jsonObject.getDouble("lon");
-
-            return new double[]{lat, lon};
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching coordinates for location: " + locationName, e);
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
         }
     }
 }
@@ -0,0 +1,112 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.cache.GeocodeCache;
+import com.luv2code.springboot.cruddemo.util.LocationNameUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class NominatimLocationService implements LocationService {
+
+    private final GeocodeCache geocodeCache;
+    // one shared client keeps connections to Nominatim alive between lookups
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final String baseUrl;
+    // lookups currently waiting on Nominatim, keyed by normalized name
+    private final ConcurrentHashMap<String, CompletableFuture<double[]>> inFlight = new ConcurrentHashMap<>();
+
+    public NominatimLocationService(GeocodeCache geocodeCache,
+            @Value("${geocode.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${geocode.http.request-timeout-ms:5000}") long requestTimeoutMs,
+            @Value("${geocode.nominatim.url:https://nominatim.openstreetmap.org}") String baseUrl) {
+        this.geocodeCache = geocodeCache;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public CompletableFuture<double[]> getCoordinatesAsync(String locationName) {
+        double[] cached = geocodeCache.get(locationName);
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        // concurrent callers for the same place share one request instead of each sending their own
+        String key = LocationNameUtil.normalize(locationName);
+        CompletableFuture<double[]> lookup = new CompletableFuture<>();
+        CompletableFuture<double[]> pending = inFlight.putIfAbsent(key, lookup);
+        if (pending != null)
+            return pending.copy();
+
+        // a lookup that finished between our cache miss and putIfAbsent has already cached its result
+        cached = geocodeCache.get(locationName);
+        if (cached != null) {
+            inFlight.remove(key, lookup);
+            lookup.complete(cached);
+            return lookup.copy();
+        }
+
+        fetchCoordinates(locationName).whenComplete((coordinates, error) -> {
+            // cache first, so a caller arriving after the removal finds the result there
+            if (error == null)
+                geocodeCache.put(locationName, coordinates);
+            inFlight.remove(key, lookup);
+            if (error == null)
+                lookup.complete(coordinates);
+            else
+                lookup.completeExceptionally(error);
+        });
+        return lookup.copy();
+    }
+
+    private CompletableFuture<double[]> fetchCoordinates(String locationName) {
+        String encodedLocation = URLEncoder.encode(locationName, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                baseUrl + "/search?q=" + encodedLocation + "&format=json&limit=1"))
+                .timeout(requestTimeout)
+                .header("User-Agent", "SpringBootApp")
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (error != null)
+                        throw new RuntimeException("Error fetching coordinates for location: " + locationName, error);
+                    return parseCoordinates(locationName, response);
+                });
+    }
+
+    private double[] parseCoordinates(String locationName, HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("Error fetching coordinates for location: " + locationName
+                    + " (HTTP " + response.statusCode() + ")");
+        }
+
+        JSONArray jsonArray = new JSONArray(response.body());
+        if (jsonArray.isEmpty()) {
+            throw new RuntimeException("Location not found: " + locationName);
+        }
+
+        JSONObject jsonObject = jsonArray.getJSONObject(0);
+        double lat = jsonObject.getDouble("lat");
+        double lon = jsonObject.getDouble("lon");
+
+        return new double[]{lat, lon};
+    }
+}
@@ -0,0 +1,139 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.routing.BidirectionalAStar;
+import com.luv2code.springboot.cruddemo.routing.RoadGraph;
+import com.luv2code.springboot.cruddemo.routing.RouteResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Road-network distances and travel times from a local graph file.
+ *
+ * The file is a preprocessed road extract, one record per line:
+ * <pre>
+ * N &lt;nodeId&gt; &lt;lat&gt; &lt;lon&gt;
+ * E &lt;fromNodeId&gt; &lt;toNodeId&gt; &lt;lengthMeters&gt; &lt;speedKmh&gt; [oneway]
+ * </pre>
+ * Edges are two-way unless marked {@code oneway}; lines starting with
+ * {@code #} are comments. Nodes must appear before the edges that use them.
+ *
+ * Without a graph file, or when a point is too far from any road, callers get
+ * null and fall back to straight-line estimates.
+ */
+@Service
+public class RoutingService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingService.class);
+
+    // getting from the requested point to the nearest road node is assumed to be slow, side-street driving
+    private static final double SNAP_SPEED_MPS = 20 / 3.6;
+
+    private final String graphFile;
+    private final double maxSnapMeters;
+    private final int maxSearches;
+
+    private volatile BidirectionalAStar engine;
+
+    public RoutingService(@Value("${routing.graph-file:}") String graphFile,
+            @Value("${routing.max-snap-meters:500}") double maxSnapMeters,
+            @Value("${routing.max-concurrent-searches:8}") int maxSearches) {
+        this.graphFile = graphFile;
+        this.maxSnapMeters = maxSnapMeters;
+        this.maxSearches = maxSearches;
+    }
+
+    public boolean isEnabled() {
+        return engine != null;
+    }
+
+    /**
+     * @return fastest road route between the two points, including the legs to
+     *         and from the nearest road nodes, or null when no route is known
+     */
+    public RouteResult route(double fromLat, double fromLon, double toLat, double toLon) {
+        BidirectionalAStar current = engine;
+        if (current == null)
+            return null;
+        RoadGraph graph = current.getGraph();
+
+        int from = graph.nearestNode(fromLat, fromLon, maxSnapMeters);
+        int to = graph.nearestNode(toLat, toLon, maxSnapMeters);
+        if (from < 0 || to < 0)
+            return null;
+
+        RouteResult road = current.route(from, to);
+        if (road == null)
+            return null;
+
+        double snapMeters = graph.metersToNode(from, fromLat, fromLon) + graph.metersToNode(to, toLat, toLon);
+        return new RouteResult(road.getMeters() + snapMeters, road.getSeconds() + snapMeters / SNAP_SPEED_MPS);
+    }
+
+    @PostConstruct
+    public void loadGraph() {
+        if (graphFile.isBlank()) {
+            log.info("No road graph configured, ETAs will use straight-line distance");
+            return;
+        }
+        Path path = Paths.get(graphFile);
+        if (!Files.exists(path)) {
+            log.warn("Road graph {} does not exist, ETAs will use straight-line distance", path);
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        Map<Long, Integer> nodeIndex = new HashMap<>();
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                String[] parts = line.split("\\s+");
+                if (parts[0].equals("N") && parts.length >= 4) {
+                    int index = builder.addNode(Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+                    nodeIndex.put(Long.parseLong(parts[1]), index);
+                } else if (parts[0].equals("E") && parts.length >= 5) {
+                    Integer from = nodeIndex.get(Long.parseLong(parts[1]));
+                    Integer to = nodeIndex.get(Long.parseLong(parts[2]));
+                    if (from == null || to == null)
+                        throw new IllegalArgumentException("edge refers to an unknown node");
+                    int meters = (int) Math.round(Double.parseDouble(parts[3]));
+                    double speedKmh = Double.parseDouble(parts[4]);
+                    if (speedKmh <= 0)
+                        throw new IllegalArgumentException("speed must be positive");
+                    float seconds = (float) (meters / (speedKmh / 3.6));
+                    builder.addEdge(from, to, meters, seconds);
+                    if (parts.length < 6 || !parts[5].equalsIgnoreCase("oneway"))
+                        builder.addEdge(to, from, meters, seconds);
+                } else {
+                    throw new IllegalArgumentException("unrecognised record");
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Could not load road graph {} (line {}), ETAs will use straight-line distance",
+                    path, lineNumber, e);
+            return;
+        }
+
+        RoadGraph graph = builder.build();
+        engine = new BidirectionalAStar(graph, maxSearches);
+        log.info("Loaded road graph {} with {} nodes and {} edges in {} ms", path, graph.getNodeCount(),
+                graph.getEdgeCount(), System.currentTimeMillis() - started);
+    }
+}
@@ -0,0 +1,176 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.TripSpeedSample;
+import com.luv2code.springboot.cruddemo.routing.SpeedProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Learns driving speeds per region and hour of the week from completed trips.
+ *
+ * A background job reads only the trips completed since its last run and adds
+ * them to running totals of distance and driving time, then publishes a fresh
+ * {@link SpeedProfile} for ETA lookups. Totals are kept as distance and time
+ * rather than averaged speeds so long trips weigh more than short ones.
+ *
+ * A trip's completion time is stamped before its transaction commits, so a
+ * trip can become visible after one completed later has already been read.
+ * Each run therefore re-reads the last {@code eta.profile.overlap-seconds}
+ * before its watermark and skips the trips it has already counted. Trips
+ * written with older completion times, such as imported history, are picked
+ * up by recounting everything after {@link #rebuildOnNextRefresh()}.
+ */
+@Service
+public class SpeedProfileService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpeedProfileService.class);
+
+    private static final LocalDateTime NO_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // anything outside this range is a trip that was started or ended at the wrong moment
+    private static final double MIN_PLAUSIBLE_KMH = 3;
+    private static final double MAX_PLAUSIBLE_KMH = 130;
+
+    private final TripDAO tripDAO;
+    private final double cellDegrees;
+    private final int minSamples;
+    private final int batchSize;
+    private final long overlapSeconds;
+
+    // running totals per hour of week, laid out as [km, hours, samples] triples;
+    // only touched by the refresh job, like the watermark and the recent trips
+    private final Map<Long, double[]> cellTotals = new HashMap<>();
+    private final double[] overallTotals = new double[3 * SpeedProfile.HOURS_PER_WEEK];
+    private LocalDateTime watermark = NO_WATERMARK;
+    // trips read within the overlap before the watermark, by completion time, so re-reading them counts nothing
+    private final Map<Long, LocalDateTime> recentTrips = new HashMap<>();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private volatile SpeedProfile profile;
+
+    public SpeedProfileService(TripDAO tripDAO,
+            @Value("${eta.profile.cell-degrees:0.05}") double cellDegrees,
+            @Value("${eta.profile.min-samples:5}") int minSamples,
+            @Value("${eta.profile.batch-size:1000}") int batchSize,
+            @Value("${eta.profile.overlap-seconds:300}") long overlapSeconds) {
+        this.tripDAO = tripDAO;
+        this.cellDegrees = cellDegrees;
+        this.minSamples = minSamples;
+        this.batchSize = batchSize;
+        this.overlapSeconds = overlapSeconds;
+        this.profile = SpeedProfile.empty(cellDegrees);
+    }
+
+    public SpeedProfile current() {
+        return profile;
+    }
+
+    /**
+     * Drops the learned totals and reads every completed trip again on the
+     * next refresh. For trips added with completion times behind those already
+     * read, which the incremental read would never reach.
+     */
+    public void rebuildOnNextRefresh() {
+        rebuildRequested.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${eta.profile.refresh-interval-ms:300000}")
+    public void refresh() {
+        boolean rebuilt = rebuildRequested.getAndSet(false);
+        if (rebuilt) {
+            cellTotals.clear();
+            Arrays.fill(overallTotals, 0);
+            recentTrips.clear();
+            watermark = NO_WATERMARK;
+        }
+
+        int added = 0;
+        try {
+            LocalDateTime completedAfter = watermark.minusSeconds(overlapSeconds);
+            long afterId = 0;
+            List<TripSpeedSample> batch;
+            do {
+                batch = tripDAO.findCompletedSpeedSamples(completedAfter, afterId, batchSize);
+                for (TripSpeedSample sample : batch) {
+                    if (recentTrips.putIfAbsent(sample.getTripId(), sample.getCompletedAt()) == null
+                            && accumulate(sample))
+                        added++;
+                }
+                if (!batch.isEmpty()) {
+                    TripSpeedSample last = batch.get(batch.size() - 1);
+                    completedAfter = last.getCompletedAt();
+                    afterId = last.getTripId();
+                    if (completedAfter.isAfter(watermark))
+                        watermark = completedAfter;
+                    // only trips the next run's overlap can return again need remembering
+                    LocalDateTime overlapStart = watermark.minusSeconds(overlapSeconds);
+                    recentTrips.values().removeIf(completedAt -> completedAt.isBefore(overlapStart));
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Could not read completed trips for speed profiles, will retry on the next run", e);
+        }
+
+        if (added > 0 || rebuilt) {
+            profile = buildProfile();
+            log.info("Speed profiles updated with {} trips, {} regions", added, profile.getCellCount());
+        }
+    }
+
+    private boolean accumulate(TripSpeedSample sample) {
+        double hours = Duration.between(sample.getStartedAt(), sample.getCompletedAt()).toSeconds() / 3600.0;
+        if (hours <= 0)
+            return false;
+        double kmh = sample.getDistanceKm() / hours;
+        if (kmh < MIN_PLAUSIBLE_KMH || kmh > MAX_PLAUSIBLE_KMH)
+            return false;
+
+        int slot = 3 * SpeedProfile.hourOfWeek(sample.getStartedAt());
+        double[] cell = cellTotals.computeIfAbsent(
+                SpeedProfile.cellKey(sample.getPickupLat(), sample.getPickupLon(), cellDegrees),
+                key -> new double[3 * SpeedProfile.HOURS_PER_WEEK]);
+        for (double[] totals : new double[][] { cell, overallTotals }) {
+            totals[slot] += sample.getDistanceKm();
+            totals[slot + 1] += hours;
+            totals[slot + 2]++;
+        }
+        return true;
+    }
+
+    private SpeedProfile buildProfile() {
+        Map<Long, float[]> cellSpeeds = new HashMap<>();
+        for (Map.Entry<Long, double[]> entry : cellTotals.entrySet()) {
+            float[] speeds = speeds(entry.getValue());
+            for (float speed : speeds) {
+                if (!Float.isNaN(speed)) {
+                    cellSpeeds.put(entry.getKey(), speeds);
+                    break;
+                }
+            }
+        }
+        return new SpeedProfile(cellDegrees, cellSpeeds, speeds(overallTotals));
+    }
+
+    private float[] speeds(double[] totals) {
+        float[] speeds = new float[SpeedProfile.HOURS_PER_WEEK];
+        for (int hour = 0; hour < speeds.length; hour++) {
+            int slot = 3 * hour;
+            speeds[hour] = totals[slot + 2] >= minSamples
+                    ? (float) (totals[slot] / totals[slot + 1])
+                    : Float.NaN;
+        }
+        return speeds;
+    }
+}
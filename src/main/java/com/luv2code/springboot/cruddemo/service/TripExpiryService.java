@@ -0,0 +1,150 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.TripDeadline;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import com.luv2code.springboot.cruddemo.messaging.TripEvent;
+import com.luv2code.springboot.cruddemo.util.TripScheduleUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires trips when they are due instead of on every read.
+ *
+ * A REQUESTED trip expires at its date, an ACCEPTED one when its start window
+ * closes (see {@link TripScheduleUtil#expiryOf}). Each such trip has a
+ * deadline in a delay queue: added when the trip is booked, handed back or
+ * accepted (from the {@link TripEvent}s of those changes), and loaded from
+ * the database when the application starts. One thread takes deadlines as
+ * they fall due, up to {@code trips.expiry.batch-size} at a time, and expires
+ * each batch in a single transaction. Deadlines of trips that have moved on
+ * are skipped there, so nothing has to be removed from the queue.
+ */
+@Service
+public class TripExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripExpiryService.class);
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final TripService tripService;
+    private final TripDAO tripDAO;
+    private final int batchSize;
+    private final long retryDelayMillis;
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    public TripExpiryService(TripService tripService, TripDAO tripDAO,
+            @Value("${trips.expiry.batch-size:100}") int batchSize,
+            @Value("${trips.expiry.retry-delay-ms:5000}") long retryDelayMillis) {
+        this.tripService = tripService;
+        this.tripDAO = tripDAO;
+        this.batchSize = batchSize;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int loaded = 0;
+        long afterId = 0;
+        List<TripDeadline> page;
+        do {
+            page = tripDAO.findPendingDeadlines(afterId, LOAD_PAGE_SIZE);
+            for (TripDeadline pending : page)
+                schedule(pending.getTripId(), pending.getStatus(), pending.getTripDate());
+            loaded += page.size();
+            if (!page.isEmpty())
+                afterId = page.get(page.size() - 1).getTripId();
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Loaded {} trip expiry deadlines", loaded);
+
+        running = true;
+        worker = new Thread(this::run, "trip-expiry");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripEvent(TripEvent event) {
+        if (event.getType() == TripEvent.Type.CREATED)
+            schedule(event.getTripId(), TripStatus.REQUESTED, event.getTripDate());
+        else if (event.getType() == TripEvent.Type.TAKEN)
+            schedule(event.getTripId(), TripStatus.ACCEPTED, event.getTripDate());
+    }
+
+    public int pending() {
+        return deadlines.size();
+    }
+
+    private void schedule(long tripId, TripStatus status, LocalDateTime tripDate) {
+        LocalDateTime expiry = TripScheduleUtil.expiryOf(status, tripDate);
+        if (expiry != null)
+            deadlines.add(new Deadline(tripId, expiry.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+    }
+
+    private void run() {
+        List<Deadline> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(deadlines.take());
+                deadlines.drainTo(batch, batchSize - 1);
+                int expired = tripService.expireDueTrips(batch.stream().map(deadline -> deadline.tripId).toList());
+                if (expired > 0)
+                    log.info("Expired {} trips", expired);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to expire {} trips, retrying in {} ms", batch.size(), retryDelayMillis, e);
+                long retryAt = System.currentTimeMillis() + retryDelayMillis;
+                for (Deadline deadline : batch)
+                    deadlines.add(new Deadline(deadline.tripId, retryAt));
+            }
+            batch.clear();
+        }
+    }
+
+    private static class Deadline implements Delayed {
+        final long tripId;
+        final long dueAtMillis;
+
+        Deadline(long tripId, long dueAtMillis) {
+            this.tripId = tripId;
+            this.dueAtMillis = dueAtMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Deadline) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.dao.TripImportDAO;
+import com.luv2code.springboot.cruddemo.dto.TripImportResultDTO;
+import com.luv2code.springboot.cruddemo.dto.TripImportRow;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Imports historical trips and their payments from newline-delimited JSON,
+ * one {@link TripImportRow} per line.
+ *
+ * The body is read as a stream and written in chunks of
+ * {@code trips.import.batch-size} rows, each chunk in its own transaction as
+ * one JDBC batch for the trips and one for the payments, so memory stays flat
+ * however large the file is and a failed chunk does not undo the ones before
+ * it. Lines that cannot be parsed, miss required fields or refer to unknown
+ * users are skipped and reported; the rest of the file is still imported.
+ *
+ * Only finished trips are accepted: live ones would also need driver slots,
+ * schedule entries and expiry deadlines that an import does not set up.
+ * Imported trips complete in the past, behind what the speed profiles have
+ * already read, so an import that wrote any has them recounted.
+ */
+@Service
+public class TripImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripImportService.class);
+
+    private static final Set<TripStatus> IMPORTABLE = EnumSet.of(TripStatus.COMPLETED,
+            TripStatus.CANCELLED_BY_CUSTOMER, TripStatus.CANCELLED_BY_DRIVER, TripStatus.EXPIRED);
+
+    private final TripImportDAO tripImportDAO;
+    private final SpeedProfileService speedProfileService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public TripImportService(TripImportDAO tripImportDAO, SpeedProfileService speedProfileService,
+            ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+            @Value("${trips.import.batch-size:1000}") int batchSize,
+            @Value("${trips.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.tripImportDAO = tripImportDAO;
+        this.speedProfileService = speedProfileService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public TripImportResultDTO importTrips(InputStream ndjson) throws IOException {
+        long started = System.currentTimeMillis();
+        Progress progress = new Progress();
+        List<TripImportRow> chunk = new ArrayList<>(batchSize);
+        List<Long> chunkLines = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+            TripImportRow row;
+            try {
+                row = objectMapper.readValue(line, TripImportRow.class);
+            } catch (JsonProcessingException e) {
+                progress.reject(lineNumber, e.getOriginalMessage());
+                continue;
+            }
+            String problem = validate(row);
+            if (problem != null) {
+                progress.reject(lineNumber, problem);
+                continue;
+            }
+            chunk.add(row);
+            chunkLines.add(lineNumber);
+            if (chunk.size() == batchSize) {
+                writeChunk(chunk, chunkLines, progress);
+                chunk.clear();
+                chunkLines.clear();
+            }
+        }
+        writeChunk(chunk, chunkLines, progress);
+        if (progress.trips > 0)
+            speedProfileService.rebuildOnNextRefresh();
+
+        long millis = System.currentTimeMillis() - started;
+        log.info("Imported {} trips and {} payments in {} ms, rejected {} lines", progress.trips,
+                progress.payments, millis, progress.rejected);
+        return new TripImportResultDTO(progress.trips, progress.payments, progress.rejected, progress.errors,
+                millis);
+    }
+
+    private void writeChunk(List<TripImportRow> chunk, List<Long> chunkLines, Progress progress) {
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> driverIds = new HashSet<>();
+        for (TripImportRow row : chunk) {
+            customerIds.add(row.getCustomerId());
+            if (row.getDriverId() != null)
+                driverIds.add(row.getDriverId());
+        }
+        Set<Long> knownCustomers = tripImportDAO.findExistingCustomerIds(customerIds);
+        Set<Long> knownDrivers = tripImportDAO.findExistingDriverIds(driverIds);
+
+        List<TripImportRow> rows = new ArrayList<>(chunk.size());
+        List<Long> lines = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            TripImportRow row = chunk.get(i);
+            if (!knownCustomers.contains(row.getCustomerId())) {
+                progress.reject(chunkLines.get(i), "customer " + row.getCustomerId() + " not found");
+            } else if (row.getDriverId() != null && !knownDrivers.contains(row.getDriverId())) {
+                progress.reject(chunkLines.get(i), "driver " + row.getDriverId() + " not found");
+            } else {
+                rows.add(row);
+                lines.add(chunkLines.get(i));
+            }
+        }
+        if (rows.isEmpty())
+            return;
+
+        try {
+            int payments = transactionTemplate.execute(status ->
+                    tripImportDAO.insertPayments(tripImportDAO.insertTrips(rows), rows));
+            progress.trips += rows.size();
+            progress.payments += payments;
+        } catch (DataAccessException e) {
+            log.warn("Could not import lines {}-{}", lines.get(0), lines.get(lines.size() - 1), e);
+            progress.rejectChunk(lines, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // null when the row can be inserted as is
+    private static String validate(TripImportRow row) {
+        if (row.getPickupLocation() == null || row.getPickupLocation().isBlank())
+            return "pickupLocation is required";
+        if (row.getDestination() == null || row.getDestination().isBlank())
+            return "destination is required";
+        if (row.getTripDate() == null)
+            return "tripDate is required";
+        if (row.getCustomerId() == null)
+            return "customerId is required";
+        // estimated_minutes is read back into int fields, so a null would fail every later load of the trip
+        if (row.getEstimatedMinutes() == null || row.getEstimatedMinutes() < 0)
+            return "estimatedMinutes is required and cannot be negative";
+        if (row.getStatus() == null || !IMPORTABLE.contains(row.getStatus()))
+            return "status must be one of " + IMPORTABLE;
+        if (row.getStatus() == TripStatus.COMPLETED && row.getDriverId() == null)
+            return "a COMPLETED trip needs a driverId";
+        if (row.getPaymentAmount() != null && row.getPaymentMethod() == null)
+            return "paymentMethod is required with paymentAmount";
+        if (row.getPaymentAmount() == null && (row.getPaymentMethod() != null || row.getPaymentStatus() != null))
+            return "paymentAmount is required with paymentMethod or paymentStatus";
+        return null;
+    }
+
+    private class Progress {
+        long trips;
+        long payments;
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+
+        void reject(long lineNumber, String reason) {
+            rejected++;
+            if (errors.size() < maxReportedErrors)
+                errors.add("line " + lineNumber + ": " + reason);
+        }
+
+        void rejectChunk(List<Long> lineNumbers, String reason) {
+            rejected += lineNumbers.size();
+            if (errors.size() < maxReportedErrors)
+                errors.add("lines " + lineNumbers.get(0) + "-" + lineNumbers.get(lineNumbers.size() - 1)
+                        + ": " + Objects.requireNonNullElse(reason, "database error"));
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.luv2code.springboot.cruddemo.service;
 
+import com.luv2code.springboot.cruddemo.dto.QuoteRequestDTO;
+import com.luv2code.springboot.cruddemo.dto.QuoteResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.RequestedTripsQuery;
+import com.luv2code.springboot.cruddemo.dto.RouteQuote;
+import com.luv2code.springboot.cruddemo.dto.TripDTO;
 import com.luv2code.springboot.cruddemo.entites.PaymentMethod;
 import com.luv2code.springboot.cruddemo.entites.Trip;
 import com.luv2code.springboot.cruddemo.entites.TripStatus;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -19,7 +25,11 @@ public interface TripService {
 
     public Trip acceptTrip(long driverId, long tripId);
 
-    public List<Trip> findRequestedTrips();
+    public List<Trip> findRequestedTrips(RequestedTripsQuery query);
+
+    public List<Trip> findTakeableTrips(long driverId);
+
+    public int expireDueTrips(List<Long> tripIds);
 
     public Trip driverStartTrip(long driverId, long tripId);
 
@@ -29,16 +39,22 @@ public interface TripService {
 
     public Trip canceledByDriver(long driverId, long tripId);
 
-    public List<Trip> getCustomerTrips(long customerId);
+    public List<TripDTO> getCustomerTrips(long customerId);
+
+    public RouteQuote quoteRoute(String pickup, String destination, boolean premium, boolean childSeat);
+
+    public RouteQuote quoteRoute(String pickup, String destination, boolean premium, boolean childSeat,
+            LocalDateTime departure);
+
+    public List<QuoteResponseDTO> quoteRoutes(List<QuoteRequestDTO> requests);
 
     public int calculateEstimatedMinutes(String pickup, String destination);
 
     public double calculateFare(String pickup, String destination, Trip trip);
 
-    public List<Trip> getDriverActiveTrips(long driverId);
+    public List<TripDTO> getDriverActiveTrips(long driverId);
 
-    public void checkExpiredTrips();
 
-    public List<Trip> getCustomerPreviousTrips(long customerId);
+    public List<TripDTO> getCustomerPreviousTrips(long customerId);
 
 }
@@ -1,24 +1,42 @@
 package com.luv2code.springboot.cruddemo.service;
 
+import com.luv2code.springboot.cruddemo.cache.DriverScheduleIndex;
+import com.luv2code.springboot.cruddemo.dao.DriverDAO;
 import com.luv2code.springboot.cruddemo.dao.TripDAO;
-import com.luv2code.springboot.cruddemo.decorator.BaseTripDecorator;
-import com.luv2code.springboot.cruddemo.decorator.ChildSeatTripDecorator;
-import com.luv2code.springboot.cruddemo.decorator.PremiumTripDecorator;
-import com.luv2code.springboot.cruddemo.decorator.TripDecorator;
+import com.luv2code.springboot.cruddemo.datasource.ReplicaSafe;
+import com.luv2code.springboot.cruddemo.messaging.TripEvent;
+import com.luv2code.springboot.cruddemo.dto.QuoteRequestDTO;
+import com.luv2code.springboot.cruddemo.dto.QuoteResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.RequestedTripsQuery;
+import com.luv2code.springboot.cruddemo.dto.RouteQuote;
+import com.luv2code.springboot.cruddemo.dto.TripDTO;
 import com.luv2code.springboot.cruddemo.entites.*;
 import com.luv2code.springboot.cruddemo.exception.*;
+import com.luv2code.springboot.cruddemo.geo.GeoPoints;
+import com.luv2code.springboot.cruddemo.pricing.FarePolicy;
+import com.luv2code.springboot.cruddemo.routing.RouteResult;
+import com.luv2code.springboot.cruddemo.util.TripScheduleUtil;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Service
 public class TripServiceImpl implements TripService {
 
+    // used until there is trip history for the place and hour
+    private static final double DEFAULT_SPEED_KMH = 40;
+    private static final double METERS_PER_DEGREE_LAT = 111_320;
+
     private final TripDAO tripDAO;
 
     @Autowired
@@ -31,57 +49,124 @@ public class TripServiceImpl implements TripService {
     @Autowired
     private DistanceCalculatorService distanceService;
     @Autowired
+    private RoutingService routingService;
+    @Autowired
+    private SpeedProfileService speedProfileService;
+    @Autowired
+    private DriverLocationService driverLocationService;
+    @Autowired
+    private DriverScheduleIndex driverScheduleIndex;
+    @Autowired
+    private DriverDAO driverDAO;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
     private PaymentService paymentService;
     @Autowired
+    private FarePolicyService farePolicyService;
+    @Autowired
     @Lazy
     private CarService carService;
+    @Autowired
+    @Qualifier("quoteExecutor")
+    private ExecutorService quoteExecutor;
+    @Value("${trip.quotes.max-batch-size:100}")
+    private int maxQuoteBatchSize;
+    @Value("${trip.requested.default-limit:50}")
+    private int requestedDefaultLimit;
+    @Value("${trip.requested.max-limit:200}")
+    private int requestedMaxLimit;
 
     @Autowired
     public TripServiceImpl(TripDAO tripDAO) {
         this.tripDAO = tripDAO;
     }
 
-    @Transactional
-    public double calculateFare(String pickup, String destination, Trip trip) {
-        double[] pickupCoords = locationService.getCoordinates(pickup);
-        double[] destCoords = locationService.getCoordinates(destination);
-
-        double distance = distanceService.calculateDistance(
-                pickupCoords[0], pickupCoords[1],
-                destCoords[0], destCoords[1]);
+    @Override
+    public RouteQuote quoteRoute(String pickup, String destination, boolean premium, boolean childSeat) {
+        return quoteRoute(pickup, destination, premium, childSeat, LocalDateTime.now());
+    }
 
-        double baseFare = 11.80;
-        double ratePerKm = 4.30;
-        trip.setFare(baseFare + (distance * ratePerKm));
+    @Override
+    public RouteQuote quoteRoute(String pickup, String destination, boolean premium, boolean childSeat,
+            LocalDateTime departure) {
+        // both lookups are in flight at the same time
+        CompletableFuture<double[]> pickupLookup = locationService.getCoordinatesAsync(pickup);
+        CompletableFuture<double[]> destLookup = locationService.getCoordinatesAsync(destination);
+        double[] pickupCoords = LocationService.await(pickupLookup);
+        double[] destCoords = LocationService.await(destLookup);
+
+        RouteResult road = routingService.route(pickupCoords[0], pickupCoords[1], destCoords[0], destCoords[1]);
+        double distance = road != null
+                ? road.getKm()
+                : distanceService.calculateDistance(
+                        pickupCoords[0], pickupCoords[1],
+                        destCoords[0], destCoords[1]);
+
+        // speeds learned from past trips at this place and hour win over the road graph's posted speeds
+        double learnedKmh = speedProfileService.current().speedKmh(pickupCoords[0], pickupCoords[1], departure);
+        int minutes;
+        if (!Double.isNaN(learnedKmh))
+            minutes = estimateMinutes(distance, learnedKmh);
+        else if (road != null)
+            minutes = (int) Math.ceil(road.getMinutes()) + 10;
+        else
+            minutes = estimateMinutes(distance, DEFAULT_SPEED_KMH);
+
+        return new RouteQuote(pickupCoords[0], pickupCoords[1], destCoords[0], destCoords[1],
+                distance, minutes, priceFare(distance, premium, childSeat));
+    }
 
-        
-        TripDecorator tripDecorator = new BaseTripDecorator(trip);
+    @Override
+    public List<QuoteResponseDTO> quoteRoutes(List<QuoteRequestDTO> requests) {
+        if (requests == null || requests.isEmpty())
+            throw new InvalidQuoteRequestException("At least one route is required");
+        if (requests.size() > maxQuoteBatchSize)
+            throw new InvalidQuoteRequestException("At most " + maxQuoteBatchSize + " routes can be quoted at once");
+        if (requests.contains(null))
+            throw new InvalidQuoteRequestException("Routes must not be null");
+
+        List<CompletableFuture<QuoteResponseDTO>> quotes = requests.stream()
+                .map(request -> CompletableFuture.supplyAsync(() -> quoteOne(request), quoteExecutor))
+                .toList();
+        return quotes.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
 
-        if (trip.isPremium()) {
-            tripDecorator = new PremiumTripDecorator(tripDecorator);
-            trip.setPremium(true);
-        }
-        if (trip.isHasChildSeat()) {
-            tripDecorator = new ChildSeatTripDecorator(tripDecorator);
-            trip.setHasChildSeat(true);
+    // one bad route should not fail the whole batch, so failures are reported per route
+    private QuoteResponseDTO quoteOne(QuoteRequestDTO request) {
+        if (request.getPickupLocation() == null || request.getPickupLocation().isBlank()
+                || request.getDestination() == null || request.getDestination().isBlank())
+            return new QuoteResponseDTO(request, null, "Pickup location and destination are required");
+        try {
+            RouteQuote quote = quoteRoute(request.getPickupLocation(), request.getDestination(),
+                    request.isPremium(), request.isHasChildSeat());
+            return new QuoteResponseDTO(request, quote, null);
+        } catch (RuntimeException e) {
+            return new QuoteResponseDTO(request, null, e.getMessage());
         }
+    }
 
-        double finalFare = tripDecorator.getFare();
-        trip.setFare(finalFare); 
-        return finalFare;
+    @Override
+    public double calculateFare(String pickup, String destination, Trip trip) {
+        RouteQuote quote = quoteRoute(pickup, destination, trip.isPremium(), trip.isHasChildSeat());
+        trip.setFare(quote.getFare());
+        return quote.getFare();
     }
 
+    @Override
     public int calculateEstimatedMinutes(String pickup, String destination) {
-        double[] pickupCoords = locationService.getCoordinates(pickup);
-        double[] destCoords = locationService.getCoordinates(destination);
-
-        double distance = distanceService.calculateDistance(
-                pickupCoords[0], pickupCoords[1],
-                destCoords[0], destCoords[1]);
+        return quoteRoute(pickup, destination, false, false).getEstimatedMinutes();
+    }
 
-        int averageSpeedKmPerHour = 40;
+    private double priceFare(double distance, boolean premium, boolean childSeat) {
+        long fareMinor = farePolicyService.current().fareMinor(distance, FarePolicy.flags(premium, childSeat));
+        return fareMinor / 100.0;
+    }
 
-        return (int) ((distance / averageSpeedKmPerHour) * 60) + 10;
+    private int estimateMinutes(double distance, double speedKmPerHour) {
+        return (int) ((distance / speedKmPerHour) * 60) + 10;
     }
 
     @Transactional
@@ -91,6 +176,7 @@ public class TripServiceImpl implements TripService {
     }
 
     @Override
+    @ReplicaSafe
     public List<Trip> findByStatus(TripStatus status) {
         return tripDAO.findByStatus(status);
     }
@@ -104,23 +190,27 @@ public class TripServiceImpl implements TripService {
 
         newTrip.setCustomer(customer);
 
-        // حساب الـ fare باستخدام decorators
-        calculateFare(newTrip.getPickupLocation(), newTrip.getDestination(), newTrip);
-
-        newTrip.setEstimatedMinutes(
-                calculateEstimatedMinutes(newTrip.getPickupLocation(), newTrip.getDestination()));
-        newTrip.setStatus(TripStatus.REQUESTED);
-
         LocalDateTime currentDate = LocalDateTime.now();
         if (newTrip.getTripDate().equals(currentDate) || newTrip.getTripDate().isBefore(currentDate)) {
             throw new InvalidTripDateException("The date you entered is not valid");
         }
 
+        // route is resolved once; fare, ETA and the payment amount all come from this quote
+        RouteQuote quote = quoteRoute(newTrip.getPickupLocation(), newTrip.getDestination(),
+                newTrip.isPremium(), newTrip.isHasChildSeat(), newTrip.getTripDate());
+        newTrip.setFare(quote.getFare());
+        newTrip.setEstimatedMinutes(quote.getEstimatedMinutes());
+        newTrip.setPickupLat(quote.getPickupLat());
+        newTrip.setPickupLon(quote.getPickupLon());
+        newTrip.setDistanceKm(quote.getDistanceKm());
+        newTrip.setStatus(TripStatus.REQUESTED);
+
         // Save النهائي بعد تعديل fare
         Trip trip = tripDAO.save(newTrip);
 
         // بعد كده التعامل مع الدفع
         paymentService.choosePayment(trip, paymentMethod);
+        eventPublisher.publishEvent(TripEvent.created(trip));
 
         return trip;
     }
@@ -144,68 +234,172 @@ public class TripServiceImpl implements TripService {
         Trip trip = tripDAO.findById(tripId);
         if (trip == null)
             throw new TripNotFoundException("Trip not found");
-        if (trip.getStatus() != TripStatus.REQUESTED) {
-            throw new RuntimeException("This trip is not available for acceptance.");
-        }
-        List<Trip> driverTrips = tripDAO.findByDriverIdAndStatusIn(
-                driverId, List.of(TripStatus.ACCEPTED, TripStatus.ONGOING));
-        LocalDateTime newStart = trip.getTripDate();
-        LocalDateTime newEnd = newStart.plusMinutes(trip.getEstimatedMinutes());
-        long MIN_GAP_MINUTES = 30;
-        for (Trip existingTrip : driverTrips) {
-            LocalDateTime existingStart = existingTrip.getTripDate();
-            LocalDateTime existingEnd = existingStart.plusMinutes(existingTrip.getEstimatedMinutes());
-            boolean overlap = !(newEnd.isBefore(existingStart) || newStart.isAfter(existingEnd));
-            long gapBefore = Duration.between(existingEnd, newStart).toMinutes();
-            long gapAfter = Duration.between(newEnd, existingStart).toMinutes();
-            if (overlap) {
-                throw new OverlapsTripsException(
-                        "⚠️ You cannot accept this trip because it overlaps with another trip.");
-            }
-            if ((gapBefore < MIN_GAP_MINUTES && gapBefore >= 0) ||
-                    (gapAfter < MIN_GAP_MINUTES && gapAfter >= 0)) {
-                throw new GapBetweenTripsException(
-                        "⚠️ There must be at least a " + MIN_GAP_MINUTES + " minute gap between trips.");
-            }
-        }
-
-        driver.setCurrentBookedTrips(driver.getCurrentBookedTrips() + 1);
-        if (driver.getCurrentBookedTrips() == 3)
-            driver.setAvailable(false);
+        // cheap early rejection; the claim below is what settles a race
+        if (trip.getStatus() != TripStatus.REQUESTED)
+            throw new TripNotRequestedException("This trip is not available for acceptance.");
+        rejectConflict(driverScheduleIndex.conflict(driverId, trip));
+        if (!tripDAO.claimRequestedTrip(tripId, driver))
+            throw new TripNotRequestedException("This trip is not available for acceptance.");
+        // a full driver rolls the claim back with the exception
+        if (!driverDAO.reserveTripSlot(driver))
+            throw new DriverBookedMoreThan3TripsException("The driver cant book more than 3 trips");
+        // the slot update holds the driver row until we commit, so a booking for this driver that committed
+        // after the check above is visible now, and none can commit before ours
+        rejectConflict(driverScheduleIndex.recheckConflict(driverId, trip));
+        if (!driver.isAvailable())
+            driverLocationService.setAvailable(driverId, false);
 
+        // the claim went straight to the database; bring the loaded copy in line with it
         trip.setDriver(driver);
         trip.setStatus(TripStatus.ACCEPTED);
-        tripDAO.save(trip);
+        driverScheduleIndex.tripScheduled(driverId, trip);
+        eventPublisher.publishEvent(TripEvent.removed(TripEvent.Type.TAKEN, trip));
 
         return trip;
     }
 
+    // the location index follows the row as refreshed by the release, and only when a slot was handed back
+    private void releaseTripSlot(Driver driver) {
+        if (driverDAO.releaseTripSlot(driver))
+            driverLocationService.setAvailable(driver.getId(), driver.isAvailable());
+    }
+
+    private static void rejectConflict(TripScheduleUtil.Conflict conflict) {
+        switch (conflict) {
+            case OVERLAP -> throw new OverlapsTripsException(
+                    "⚠️ You cannot accept this trip because it overlaps with another trip.");
+            case GAP -> throw new GapBetweenTripsException(
+                    "⚠️ There must be at least a " + TripScheduleUtil.MIN_GAP_MINUTES + " minute gap between trips.");
+            case NONE -> {
+            }
+        }
+    }
+
     @Override
-    public List<Trip> getDriverActiveTrips(long driverId) {
-        checkExpiredTrips();
-        return tripDAO.findByDriverIdAndStatusIn(driverId, List.of(TripStatus.ACCEPTED, TripStatus.ONGOING));
+    public List<TripDTO> getDriverActiveTrips(long driverId) {
+        return tripDAO.getDriverTrips(driverId, List.of(TripStatus.ACCEPTED, TripStatus.ONGOING));
     }
 
     @Override
-    public List<Trip> findRequestedTrips() {
-        checkExpiredTrips();
-        List<Trip> trips = tripDAO.findByStatus(TripStatus.REQUESTED);
-        if (trips == null || trips.isEmpty()) {
-            throw new TripNotFoundException("No requested trips found");
+    public List<Trip> findTakeableTrips(long driverId) {
+        Driver driver = driverService.findById(driverId);
+        if (driver == null)
+            throw new DriverNotFoundException("Driver not found");
+        if (!driver.isAvailable())
+            return List.of();
+        LocalDateTime now = LocalDateTime.now();
+        return tripDAO.findByStatus(TripStatus.REQUESTED).stream()
+                .filter(trip -> trip.getTripDate().isAfter(now))
+                .filter(trip -> driverScheduleIndex.conflict(driverId, trip) == TripScheduleUtil.Conflict.NONE)
+                .toList();
+    }
+
+    @Override
+    public List<Trip> findRequestedTrips(RequestedTripsQuery query) {
+        if ((query.getAfterDate() == null) != (query.getAfterId() == null))
+            throw new InvalidTripQueryException("afterDate and afterId must be given together");
+        int limit = query.getLimit() == null ? requestedDefaultLimit : Math.min(query.getLimit(), requestedMaxLimit);
+        if (limit <= 0)
+            throw new InvalidTripQueryException("limit must be positive");
+
+        boolean byRadius = query.getLat() != null || query.getLon() != null || query.getRadiusMeters() != null;
+        boolean byBox = query.getMinLat() != null || query.getMinLon() != null
+                || query.getMaxLat() != null || query.getMaxLon() != null;
+        if (byRadius && byBox)
+            throw new InvalidTripQueryException("Give either a radius around a point or a bounding box, not both");
+        double[] box = null;
+        if (byRadius)
+            box = radiusBox(query.getLat(), query.getLon(), query.getRadiusMeters());
+        else if (byBox)
+            box = boundingBox(query.getMinLat(), query.getMinLon(), query.getMaxLat(), query.getMaxLon());
+
+        // the box is only a prefilter for a radius, so keep reading until the page is full
+        List<Trip> page = new ArrayList<>(limit);
+        LocalDateTime afterDate = query.getAfterDate();
+        Long afterId = query.getAfterId();
+        List<Trip> batch;
+        do {
+            batch = tripDAO.findRequestedPage(afterDate, afterId, box, limit);
+            double[] km = byRadius ? pickupDistancesKm(query.getLat(), query.getLon(), batch) : null;
+            for (int i = 0; i < batch.size(); i++) {
+                if (page.size() < limit && (!byRadius || km[i] * 1000 <= query.getRadiusMeters()))
+                    page.add(batch.get(i));
+            }
+            if (!batch.isEmpty()) {
+                Trip last = batch.get(batch.size() - 1);
+                afterDate = last.getTripDate();
+                afterId = last.getId();
+            }
+        } while (byRadius && page.size() < limit && batch.size() == limit);
+        return page;
+    }
+
+    // one pass from the query point over the whole batch rather than a haversine call per trip
+    private double[] pickupDistancesKm(double lat, double lon, List<Trip> trips) {
+        double[] lats = new double[trips.size()];
+        double[] lons = new double[trips.size()];
+        for (int i = 0; i < trips.size(); i++) {
+            lats[i] = trips.get(i).getPickupLat();
+            lons[i] = trips.get(i).getPickupLon();
         }
-        return trips;
+        double[] km = new double[trips.size()];
+        distanceService.distancesFrom(lat, lon, GeoPoints.of(lats, lons), km);
+        return km;
     }
 
+    private static double[] radiusBox(Double lat, Double lon, Double radiusMeters) {
+        if (lat == null || lon == null || radiusMeters == null)
+            throw new InvalidLocationException("lat, lon and radiusMeters must be given together");
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180)
+            throw new InvalidLocationException("Latitude or longitude is out of range");
+        if (radiusMeters <= 0)
+            throw new InvalidLocationException("Search radius must be positive");
+        double dLat = radiusMeters / METERS_PER_DEGREE_LAT;
+        double dLon = radiusMeters / (METERS_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        return new double[] { lat - dLat, lon - dLon, lat + dLat, lon + dLon };
+    }
+
+    private static double[] boundingBox(Double minLat, Double minLon, Double maxLat, Double maxLon) {
+        if (minLat == null || minLon == null || maxLat == null || maxLon == null)
+            throw new InvalidLocationException("minLat, minLon, maxLat and maxLon must be given together");
+        if (minLat > maxLat || minLon > maxLon)
+            throw new InvalidLocationException("The bounding box minimum is above its maximum");
+        return new double[] { minLat, minLon, maxLat, maxLon };
+    }
+
+    // ids may include trips that are not due or have moved on since they were queued; those are skipped
     @Transactional
     @Override
-    public void checkExpiredTrips() {
-        int updated = tripDAO.markExpiredTrips();
-        System.out.println("✅ " + updated + " trips marked as EXPIRED.");
+    public int expireDueTrips(List<Long> tripIds) {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (Trip trip : tripDAO.findByIds(tripIds)) {
+            TripStatus status = trip.getStatus();
+            LocalDateTime expiry = TripScheduleUtil.expiryOf(status, trip.getTripDate());
+            if (expiry == null || expiry.isAfter(now))
+                continue;
+            // an accepted trip may have been handed back and taken by another driver since it was read
+            Driver driver = trip.getDriver();
+            boolean moved = status == TripStatus.ACCEPTED
+                    ? tripDAO.updateAssignedStatus(trip.getId(), driver.getId(), status, TripStatus.EXPIRED)
+                    : tripDAO.expireTrip(trip.getId(), status);
+            if (!moved)
+                continue;
+            if (status == TripStatus.ACCEPTED) {
+                releaseTripSlot(driver);
+                driverScheduleIndex.tripRemoved(driver.getId(), trip.getId());
+            } else {
+                eventPublisher.publishEvent(TripEvent.removed(TripEvent.Type.EXPIRED, trip));
+            }
+            expired++;
+        }
+        return expired;
     }
 
     @Override
-    public List<Trip> getCustomerPreviousTrips(long customerId) {
-        List<Trip> trips = tripDAO.customerPreviousTrips(customerId);
+    @ReplicaSafe
+    public List<TripDTO> getCustomerPreviousTrips(long customerId) {
+        List<TripDTO> trips = tripDAO.customerPreviousTrips(customerId);
         if (trips.isEmpty()) {
             throw new TripNotFoundException("No previous trips found for customer with ID: " + customerId);
         }
@@ -215,7 +409,6 @@ public class TripServiceImpl implements TripService {
     @Transactional
     @Override
     public Trip driverStartTrip(long driverId, long tripId) {
-        checkExpiredTrips();
         Trip trip = tripDAO.findById(tripId);
         if (trip == null)
             throw new TripNotFoundException("The trip id not found " + tripId);
@@ -223,15 +416,21 @@ public class TripServiceImpl implements TripService {
         Driver driver = driverService.findById(driverId);
         if (driver == null)
             throw new DriverNotFoundException("The driver not found");
+        requireAssignedTo(trip, driverId);
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime tripTime = trip.getTripDate();
-        if (now.isBefore(tripTime.minusMinutes(10)) || now.isAfter(tripTime.plusMinutes(10))) {
-            throw new StartBeforeScheduledTimeException(
-                    "You can only start the trip within 10 minutes before or after the scheduled time");
+        if (now.isBefore(tripTime.minusMinutes(TripScheduleUtil.START_WINDOW_MINUTES))
+                || now.isAfter(tripTime.plusMinutes(TripScheduleUtil.START_WINDOW_MINUTES))) {
+            throw new StartBeforeScheduledTimeException("You can only start the trip within "
+                    + TripScheduleUtil.START_WINDOW_MINUTES + " minutes before or after the scheduled time");
         }
+        if (!tripDAO.updateAssignedStatus(tripId, driverId, TripStatus.ACCEPTED, TripStatus.ONGOING))
+            throw new TripStatusConflictException("Only an accepted trip can be started");
 
+        // the update went straight to the database; bring the loaded copy in line with it
         trip.setStatus(TripStatus.ONGOING);
+        trip.setStartedAt(now);
         return trip;
     }
 
@@ -245,10 +444,17 @@ public class TripServiceImpl implements TripService {
         Driver driver = driverService.findById(driverId);
         if (driver == null)
             throw new DriverNotFoundException("The driver not found");
+        requireAssignedTo(trip, driverId);
+
+        // only the caller that moves the trip out of ACCEPTED or ONGOING hands the driver's slot back
+        if (!isBooked(trip.getStatus())
+                || !tripDAO.updateAssignedStatus(tripId, driverId, trip.getStatus(), TripStatus.COMPLETED))
+            throw new TripStatusConflictException("Only an accepted or ongoing trip can be completed");
 
         trip.setStatus(TripStatus.COMPLETED);
-        driver.setAvailable(true);
-        driver.setCurrentBookedTrips(driver.getCurrentBookedTrips() - 1);
+        trip.setCompletedAt(LocalDateTime.now());
+        releaseTripSlot(driver);
+        driverScheduleIndex.tripRemoved(driverId, tripId);
         paymentService.donePayment(tripId);
 
         return trip;
@@ -264,13 +470,29 @@ public class TripServiceImpl implements TripService {
         Customer customer = customerService.findById(customerId);
         if (customer == null)
             throw new CustomerNotFoundException("The Customer not found");
-
+        if (trip.getCustomer().getId() != customerId)
+            throw new CustomerOrDriverNotAssigned("This trip does not belong to you");
+
+        TripStatus status = trip.getStatus();
+        boolean cancelled;
+        if (status == TripStatus.REQUESTED)
+            cancelled = tripDAO.updateStatus(tripId, status, TripStatus.CANCELLED_BY_CUSTOMER);
+        else if (isBooked(status))
+            cancelled = tripDAO.updateAssignedStatus(tripId, trip.getDriver().getId(), status,
+                    TripStatus.CANCELLED_BY_CUSTOMER);
+        else
+            cancelled = false;
+        if (!cancelled)
+            throw new TripStatusConflictException("This trip can no longer be cancelled");
+
+        if (status == TripStatus.REQUESTED)
+            eventPublisher.publishEvent(TripEvent.removed(TripEvent.Type.CANCELLED, trip));
         trip.setStatus(TripStatus.CANCELLED_BY_CUSTOMER);
 
-        if (trip.getDriver() != null) {
+        if (isBooked(status)) {
             Driver driver = driverService.findById(trip.getDriver().getId());
-            trip.getDriver().setAvailable(true);
-            driver.setCurrentBookedTrips(driver.getCurrentBookedTrips() - 1);
+            releaseTripSlot(driver);
+            driverScheduleIndex.tripRemoved(driver.getId(), tripId);
         }
 
         return trip;
@@ -286,19 +508,32 @@ public class TripServiceImpl implements TripService {
         Driver driver = driverService.findById(driverId);
         if (driver == null)
             throw new CustomerNotFoundException("The Customer not found");
+        requireAssignedTo(trip, driverId);
+        if (!isBooked(trip.getStatus()) || !tripDAO.unassignTrip(tripId, driverId, trip.getStatus()))
+            throw new TripStatusConflictException("This trip can no longer be cancelled");
 
         trip.setStatus(TripStatus.REQUESTED);
-        driver.setCurrentBookedTrips(driver.getCurrentBookedTrips() - 1);
-        driver.setAvailable(true);
+        releaseTripSlot(driver);
+        driverScheduleIndex.tripRemoved(driverId, tripId);
         trip.setDriver(null);
 
         tripDAO.save(trip);
+        eventPublisher.publishEvent(TripEvent.created(trip));
         return trip;
     }
 
+    private static boolean isBooked(TripStatus status) {
+        return status == TripStatus.ACCEPTED || status == TripStatus.ONGOING;
+    }
+
+    private static void requireAssignedTo(Trip trip, long driverId) {
+        if (trip.getDriver() == null || trip.getDriver().getId() != driverId)
+            throw new CustomerOrDriverNotAssigned("This trip is not assigned to you");
+    }
+
     @Override
-    @Transactional
-    public List<Trip> getCustomerTrips(long customerId) {
+    @ReplicaSafe
+    public List<TripDTO> getCustomerTrips(long customerId) {
         return tripDAO.getCustomerTrips(customerId);
     }
 }
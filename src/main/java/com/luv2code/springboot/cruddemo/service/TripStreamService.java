@@ -0,0 +1,195 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.exception.InvalidLocationException;
+import com.luv2code.springboot.cruddemo.exception.TripStreamFullException;
+import com.luv2code.springboot.cruddemo.messaging.TripEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes changes to the pool of requested trips to connected drivers over
+ * server-sent events, so they do not have to poll {@code /api/trips/requested}.
+ *
+ * A driver fetches the requested trips once, then applies the CREATED,
+ * TAKEN, CANCELLED and EXPIRED events from the stream. A subscription may be
+ * limited to trips picked up within a radius of a point; events for trips
+ * without stored coordinates go to everyone. A comment line every
+ * {@code trips.stream.heartbeat-ms} keeps idle connections open through
+ * proxies.
+ *
+ * Events are queued for each subscriber after the change commits, in commit
+ * order, and a small pool of sender threads drains the queues; a subscriber's
+ * queue is only ever drained by one thread at a time, so each driver sees
+ * events in order while a slow connection holds up nobody else. A driver
+ * whose queue fills up ({@code trips.stream.queue-capacity}) is disconnected
+ * and has to fetch the requested trips again when it reconnects.
+ */
+@Service
+public class TripStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripStreamService.class);
+
+    private final DistanceCalculatorService distanceService;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // holds at most one drain task per subscriber, so its queue is bounded by max-subscribers
+    private final ExecutorService senders;
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public TripStreamService(DistanceCalculatorService distanceService,
+            @Value("${trips.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${trips.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${trips.stream.queue-capacity:256}") int queueCapacity,
+            @Value("${trips.stream.sender-threads:4}") int senderThreads) {
+        this.distanceService = distanceService;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.senders = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("trip-stream-"));
+    }
+
+    /**
+     * @param lat          centre of the region; null together with lon for every trip
+     * @param radiusMeters only trips picked up within this distance of the centre
+     */
+    public SseEmitter subscribe(Double lat, Double lon, Double radiusMeters) {
+        if ((lat == null) != (lon == null))
+            throw new InvalidLocationException("Latitude and longitude must be given together");
+        if (lat != null && (lat < -90 || lat > 90 || lon < -180 || lon > 180))
+            throw new InvalidLocationException("Latitude or longitude is out of range");
+        if (lat != null && (radiusMeters == null || radiusMeters <= 0))
+            throw new InvalidLocationException("A positive search radius is required with a location");
+        if (subscribers.size() >= maxSubscribers)
+            throw new TripStreamFullException("Too many drivers are connected to the trip stream, try again shortly");
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, lat, lon, radiusMeters, queueCapacity);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // synchronized so ids are handed out, and events queued, in the order the changes committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTripEvent(TripEvent event) {
+        SseEmitter.SseEventBuilder message = SseEmitter.event()
+                .id(Long.toString(eventIds.incrementAndGet()))
+                .name(event.getType().name())
+                .data(event);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.wants(event))
+                enqueue(subscriber, message);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trips.stream.heartbeat-ms:15000}")
+    public synchronized void heartbeat() {
+        if (subscribers.isEmpty())
+            return;
+        SseEmitter.SseEventBuilder ping = SseEmitter.event().comment("ping");
+        for (Subscriber subscriber : subscribers)
+            enqueue(subscriber, ping);
+    }
+
+    @PreDestroy
+    public void close() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers)
+            subscriber.emitter.complete();
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder message) {
+        if (!subscriber.queue.offer(message)) {
+            // the driver is not reading fast enough; it would only fall further behind
+            log.debug("Disconnecting a trip stream subscriber with {} events queued", queueCapacity);
+            disconnect(subscriber);
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true))
+            return;
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        SseEmitter.SseEventBuilder message;
+        while ((message = subscriber.queue.poll()) != null) {
+            try {
+                subscriber.emitter.send(message);
+            } catch (IOException | IllegalStateException e) {
+                // the driver went away; the container reports it through onError or onCompletion too
+                subscribers.remove(subscriber);
+                subscriber.queue.clear();
+                log.debug("Dropped trip stream subscriber", e);
+            }
+        }
+        subscriber.draining.set(false);
+        // an event queued after the last poll but before the flag was cleared found the flag still set
+        if (!subscriber.queue.isEmpty())
+            scheduleDrain(subscriber);
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        subscriber.emitter.complete();
+    }
+
+    private class Subscriber {
+        final SseEmitter emitter;
+        final Double lat;
+        final Double lon;
+        final Double radiusMeters;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Double lat, Double lon, Double radiusMeters, int queueCapacity) {
+            this.emitter = emitter;
+            this.lat = lat;
+            this.lon = lon;
+            this.radiusMeters = radiusMeters;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        boolean wants(TripEvent event) {
+            if (lat == null || event.getPickupLat() == null || event.getPickupLon() == null)
+                return true;
+            return distanceService.calculateDistance(lat, lon, event.getPickupLat(), event.getPickupLon()) * 1000
+                    <= radiusMeters;
+        }
+    }
+}
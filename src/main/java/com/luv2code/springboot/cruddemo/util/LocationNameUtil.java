@@ -0,0 +1,18 @@
+package com.luv2code.springboot.cruddemo.util;
+
+import java.util.Locale;
+
+public class LocationNameUtil {
+
+    private LocationNameUtil() {
+    }
+
+    // "  Cairo   International Airport " and "cairo international airport" map to the same key
+    public static String normalize(String locationName) {
+        if (locationName == null)
+            return "";
+        return locationName.trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,96 @@
+package com.luv2code.springboot.cruddemo.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Each slot carries a sequence number (Vyukov's bounded queue): a producer
+ * may claim position {@code p} only when its slot's sequence equals {@code p},
+ * and publishes the element by setting the sequence to {@code p + 1}; the
+ * consumer frees the slot by moving the sequence a full lap ahead. Producers
+ * contend on one CAS of the tail, and {@link #offer} fails instead of waiting
+ * when the queue is full.
+ */
+public class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // only written by the consumer
+    private volatile long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        int rounded = 1;
+        while (rounded < capacity)
+            rounded <<= 1;
+        this.capacity = rounded;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * @return false if the queue is full; the element is not added
+     */
+    public boolean offer(E element) {
+        if (element == null)
+            throw new NullPointerException();
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long diff = sequences.get(slot) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // the consumer has not freed this slot from the previous lap
+                return false;
+            }
+            // otherwise another producer claimed the position first; retry with the new tail
+        }
+    }
+
+    /**
+     * Must only be called from the single consumer thread.
+     *
+     * @return the oldest element, or null if none is published yet
+     */
+    public E poll() {
+        long position = head;
+        int slot = (int) position & mask;
+        if (sequences.get(slot) != position + 1)
+            return null;
+        E element = slots.get(slot);
+        slots.lazySet(slot, null);
+        sequences.set(slot, position + capacity);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * @return approximate number of queued elements
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
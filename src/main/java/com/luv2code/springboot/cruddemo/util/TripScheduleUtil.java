@@ -0,0 +1,59 @@
+package com.luv2code.springboot.cruddemo.util;
+
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * The rules for fitting a trip into a driver's schedule: it may not overlap
+ * another of the driver's trips, and there must be at least
+ * {@link #MIN_GAP_MINUTES} between the end of one trip and the start of the next.
+ * A trip can be started up to {@link #START_WINDOW_MINUTES} either side of its date,
+ * and expires when nobody accepted it by its date or nobody started it in time.
+ */
+public class TripScheduleUtil {
+
+    public static final long MIN_GAP_MINUTES = 30;
+    public static final long START_WINDOW_MINUTES = 10;
+
+    public enum Conflict {
+        NONE, OVERLAP, GAP
+    }
+
+    private TripScheduleUtil() {
+    }
+
+    public static LocalDateTime endOf(Trip trip) {
+        return endOf(trip.getTripDate(), trip.getEstimatedMinutes());
+    }
+
+    public static LocalDateTime endOf(LocalDateTime tripDate, int estimatedMinutes) {
+        return tripDate.plusMinutes(estimatedMinutes);
+    }
+
+    /**
+     * @return when a trip in this status expires, or null if it cannot expire
+     */
+    public static LocalDateTime expiryOf(TripStatus status, LocalDateTime tripDate) {
+        return switch (status) {
+            case REQUESTED -> tripDate;
+            case ACCEPTED -> tripDate.plusMinutes(START_WINDOW_MINUTES);
+            default -> null;
+        };
+    }
+
+    public static Conflict conflict(LocalDateTime newStart, LocalDateTime newEnd,
+            LocalDateTime existingStart, LocalDateTime existingEnd) {
+        boolean overlap = !(newEnd.isBefore(existingStart) || newStart.isAfter(existingEnd));
+        if (overlap)
+            return Conflict.OVERLAP;
+        long gapBefore = Duration.between(existingEnd, newStart).toMinutes();
+        long gapAfter = Duration.between(newEnd, existingStart).toMinutes();
+        if ((gapBefore < MIN_GAP_MINUTES && gapBefore >= 0) ||
+                (gapAfter < MIN_GAP_MINUTES && gapAfter >= 0))
+            return Conflict.GAP;
+        return Conflict.NONE;
+    }
+}
@@ -0,0 +1,136 @@
+-- Schema as Hibernate created it with ddl-auto=update before migrations were introduced.
+-- Databases that already have these tables are baselined at version 1 and skip this script.
+
+create table cars (
+    car_id bigint not null auto_increment,
+    created_at datetime(6),
+    driver_id bigint,
+    color varchar(255) not null,
+    license_plate varchar(255) not null,
+    model varchar(255) not null,
+    primary key (car_id)
+) engine=InnoDB;
+
+create table complaints (
+    complaint_id bigint not null auto_increment,
+    created_at datetime(6),
+    customer_id bigint,
+    trip_id bigint,
+    message varchar(255) not null,
+    status enum ('CLOSED','NEW','OPENED'),
+    primary key (complaint_id)
+) engine=InnoDB;
+
+create table customers (
+    created_at datetime(6),
+    customer_id bigint not null auto_increment,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    image_url TEXT,
+    last_name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (customer_id)
+) engine=InnoDB;
+
+create table drivers (
+    available bit,
+    current_booked_trips integer,
+    rating integer,
+    created_at datetime(6),
+    driver_id bigint not null auto_increment,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    image_url TEXT,
+    last_name varchar(255) not null,
+    license_number varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (driver_id)
+) engine=InnoDB;
+
+create table employees (
+    created_at datetime(6),
+    employee_id bigint not null auto_increment,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (employee_id)
+) engine=InnoDB;
+
+create table payments (
+    amount float(53) not null,
+    created_at datetime(6),
+    payment_id bigint not null auto_increment,
+    trip_id bigint not null,
+    payment_method enum ('CASH','CREDIT_CARD','WALLET') not null,
+    payment_status enum ('FAILED','PAID','PENDING') not null,
+    primary key (payment_id)
+) engine=InnoDB;
+
+create table trips (
+    estimated_minutes integer,
+    fare float(53),
+    has_child_seat BOOLEAN DEFAULT FALSE not null,
+    is_premium BOOLEAN DEFAULT FALSE not null,
+    rated bit,
+    created_at datetime(6),
+    customer_id bigint not null,
+    driver_id bigint,
+    trip_date datetime(6) not null,
+    trip_id bigint not null auto_increment,
+    destination varchar(255) not null,
+    pickup_location varchar(255) not null,
+    status enum ('ACCEPTED','BOOKED','CANCELLED_BY_CUSTOMER','CANCELLED_BY_DRIVER','COMPLETED','EXPIRED','ONGOING','REQUESTED'),
+    primary key (trip_id)
+) engine=InnoDB;
+
+alter table cars
+    add constraint UKltn04785q9w42gtjcju6bplnt unique (driver_id);
+
+alter table cars
+    add constraint UKdbc9idlyetvssufb2vxicvb87 unique (license_plate);
+
+alter table customers
+    add constraint UKrfbvkrffamfql7cjmen8v976v unique (email);
+
+alter table drivers
+    add constraint UKre66mdta4hy6pxm2w1rqu08jv unique (email);
+
+alter table drivers
+    add constraint UKcr60ij36fuvtcb87298g6rct6 unique (license_number);
+
+alter table employees
+    add constraint UKj9xgmd0ya5jmus09o0b8pqrpb unique (email);
+
+alter table cars
+    add constraint FKs0dcjp3mjm2pn9435ey8ba0w4
+    foreign key (driver_id)
+    references drivers (driver_id);
+
+alter table complaints
+    add constraint FKmua2lxim39d851mt78cu4vbtk
+    foreign key (customer_id)
+    references customers (customer_id);
+
+alter table complaints
+    add constraint FKjmr0eeeu5huu739a2h1xsb4c4
+    foreign key (trip_id)
+    references trips (trip_id);
+
+alter table payments
+    add constraint FKk1k4eds595iabbddfl58901jm
+    foreign key (trip_id)
+    references trips (trip_id);
+
+alter table trips
+    add constraint FKnghaxh3sjtlbwd9a1oag294q0
+    foreign key (customer_id)
+    references customers (customer_id);
+
+alter table trips
+    add constraint FKaq8aob3mymsvmh1fkko7k9ql9
+    foreign key (driver_id)
+    references drivers (driver_id);
@@ -0,0 +1,29 @@
+-- Trip route and timing columns and the driver location tables, added after
+-- the version 1 schema. Existing trips keep nulls in the new columns.
+
+alter table trips
+    add column pickup_lat float(53),
+    add column pickup_lon float(53),
+    add column distance_km float(53),
+    add column started_at datetime(6),
+    add column completed_at datetime(6);
+
+create table driver_positions (
+    lat float(53) not null,
+    lon float(53) not null,
+    driver_id bigint not null,
+    recorded_at datetime(6) not null,
+    primary key (driver_id)
+) engine=InnoDB;
+
+create table driver_location_pings (
+    lat float(53) not null,
+    lon float(53) not null,
+    driver_id bigint not null,
+    ping_id bigint not null auto_increment,
+    recorded_at datetime(6) not null,
+    primary key (ping_id)
+) engine=InnoDB;
+
+create index idx_driver_location_pings_driver_time
+    on driver_location_pings (driver_id, recorded_at);
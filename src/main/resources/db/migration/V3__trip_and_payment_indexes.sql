@@ -0,0 +1,18 @@
+-- Indexes for the trip and payment queries in the DAOs. On MySQL the explicit
+-- driver_id, customer_id and trip_id indexes also take over from the ones
+-- InnoDB created implicitly for the foreign keys.
+
+-- requested trips by date: listing pages, batch dispatch window, expiry deadlines
+create index idx_trips_status_trip_date on trips (status, trip_date);
+
+-- completed trips in completion order, read by the ETA speed profile job
+create index idx_trips_status_completed_at on trips (status, completed_at);
+
+-- a driver's accepted and ongoing trips: schedule checks, active trips, capacity reconciliation
+create index idx_trips_driver_status on trips (driver_id, status);
+
+-- a customer's trips and trip history
+create index idx_trips_customer_status on trips (customer_id, status);
+
+-- the payment of a trip
+create index idx_payments_trip on payments (trip_id);
@@ -0,0 +1,316 @@
+package com.luv2code.springboot.cruddemo;
+
+import com.luv2code.springboot.cruddemo.dao.DriverDAO;
+import com.luv2code.springboot.cruddemo.dao.PaymentDAO;
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.DriverCapacityRow;
+import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls the trip, driver and payment DAO queries against a seeded dataset,
+ * captures the SQL Hibernate sends for each together with its bound
+ * parameters, and fails if EXPLAIN shows any of it scanning a whole table.
+ *
+ * Needs the database from application.properties, migrated by Flyway, so it
+ * only runs with {@code -Dexplain=true}. The DAO calls run in one transaction
+ * that is rolled back; the fixtures are deleted afterwards.
+ */
+@SpringBootTest
+@Import(QueryPlanTest.StatementCapture.class)
+@EnabledIfSystemProperty(named = "explain", matches = "true")
+class QueryPlanTest {
+
+    // enough that the optimizer can't pick scanning customers as the cheap side of a trip join
+    private static final int CUSTOMERS = 2000;
+    private static final int DRIVERS = 50;
+    private static final int TRIPS = 5000;
+    private static final String[] STATUSES = { "REQUESTED", "ACCEPTED", "ONGOING", "COMPLETED", "EXPIRED",
+            "CANCELLED_BY_CUSTOMER" };
+    private static final List<TripStatus> SCHEDULED = List.of(TripStatus.ACCEPTED, TripStatus.ONGOING);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TripDAO tripDAO;
+    @Autowired
+    private DriverDAO driverDAO;
+    @Autowired
+    private PaymentDAO paymentDAO;
+
+    private String run;
+    private long customerId;
+    private long firstDriverId;
+    private long firstTripId;
+
+    @BeforeEach
+    void seed() {
+        run = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        List<Object[]> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++)
+            customers.add(new Object[] { "plan-" + run + "-" + i + "@example.com" });
+        jdbcTemplate.batchUpdate("INSERT INTO customers (first_name, last_name, email, phone, password) "
+                + "VALUES ('Plan', 'Test', ?, '01000000000', 'plan-test')", customers);
+        List<Long> customerIds = jdbcTemplate.queryForList(
+                "SELECT customer_id FROM customers WHERE email LIKE ? ORDER BY customer_id", Long.class,
+                "plan-" + run + "-%");
+        customerId = customerIds.get(0);
+
+        List<Object[]> drivers = new ArrayList<>();
+        for (int i = 0; i < DRIVERS; i++)
+            drivers.add(new Object[] { "plan-" + run + "-" + i + "@example.com", "PLAN-" + run + "-" + i });
+        jdbcTemplate.batchUpdate("INSERT INTO drivers (first_name, last_name, email, phone, password, license_number, "
+                + "available, current_booked_trips, rating) VALUES ('Plan', 'Test', ?, '01000000000', 'plan-test', ?, "
+                + "true, 0, 4)", drivers);
+        List<Long> driverIds = jdbcTemplate.queryForList(
+                "SELECT driver_id FROM drivers WHERE license_number LIKE ? ORDER BY driver_id", Long.class,
+                "PLAN-" + run + "-%");
+        firstDriverId = driverIds.get(0);
+
+        LocalDateTime base = LocalDateTime.now().minusDays(30);
+        List<Object[]> trips = new ArrayList<>();
+        for (int i = 0; i < TRIPS; i++) {
+            String status = STATUSES[i % STATUSES.length];
+            Long driverId = status.equals("REQUESTED") ? null : driverIds.get(i % DRIVERS);
+            LocalDateTime tripDate = base.plusMinutes(17L * i);
+            Timestamp completedAt = status.equals("COMPLETED") ? Timestamp.valueOf(tripDate.plusMinutes(25)) : null;
+            trips.add(new Object[] { "Plan pickup", "Plan destination", Timestamp.valueOf(tripDate), status,
+                    customerIds.get(i % CUSTOMERS), driverId, 30.0 + i % 10 * 0.01, 31.0 + i % 10 * 0.01,
+                    completedAt });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO trips (pickup_location, destination, trip_date, status, customer_id, "
+                + "driver_id, pickup_lat, pickup_lon, completed_at, estimated_minutes, fare, rated, is_premium, "
+                + "has_child_seat) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 30, 50, false, false, false)", trips);
+        // trip i belongs to customer i % CUSTOMERS, so the first customer owns the first trip
+        firstTripId = jdbcTemplate.queryForObject(
+                "SELECT MIN(trip_id) FROM trips WHERE customer_id = ?", Long.class, customerId);
+
+        jdbcTemplate.update("INSERT INTO payments (trip_id, amount, payment_method, payment_status) "
+                + "SELECT t.trip_id, 50, 'CASH', 'PENDING' FROM trips t JOIN customers c "
+                + "ON c.customer_id = t.customer_id WHERE c.email LIKE ?", "plan-" + run + "-%");
+        jdbcTemplate.execute("ANALYZE TABLE trips, payments, drivers, customers");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        String customers = "plan-" + run + "-%";
+        jdbcTemplate.update("DELETE p FROM payments p JOIN trips t ON t.trip_id = p.trip_id "
+                + "JOIN customers c ON c.customer_id = t.customer_id WHERE c.email LIKE ?", customers);
+        jdbcTemplate.update("DELETE t FROM trips t JOIN customers c ON c.customer_id = t.customer_id "
+                + "WHERE c.email LIKE ?", customers);
+        jdbcTemplate.update("DELETE FROM drivers WHERE license_number LIKE ?", "PLAN-" + run + "-%");
+        jdbcTemplate.update("DELETE FROM customers WHERE email LIKE ?", customers);
+    }
+
+    @Test
+    void noDaoQueryScansAWholeTable() {
+        // the first trips cycle through STATUSES, each with the driver at the same offset
+        long requestedTripId = firstTripId;
+        long acceptedTripId = firstTripId + 1;
+        long driverId = firstDriverId + 1;
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, List<CapturedStatement>> statements = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Driver driver = entityManager.find(Driver.class, driverId);
+
+            capture(statements, "TripDAO.findByStatus", () -> tripDAO.findByStatus(TripStatus.REQUESTED));
+            capture(statements, "TripDAO.getCustomerTrips", () -> tripDAO.getCustomerTrips(customerId));
+            capture(statements, "TripDAO.getDriverTrips", () -> tripDAO.getDriverTrips(driverId, SCHEDULED));
+            capture(statements, "TripDAO.customerPreviousTrips", () -> tripDAO.customerPreviousTrips(customerId));
+            capture(statements, "TripDAO.findByDriverIdAndStatusIn",
+                    () -> tripDAO.findByDriverIdAndStatusIn(driverId, SCHEDULED));
+            capture(statements, "TripDAO.findScheduledTrips", () -> tripDAO.findScheduledTrips(driverId, SCHEDULED));
+            capture(statements, "TripDAO.lockScheduledTrips",
+                    () -> tripDAO.lockScheduledTrips(driverId, SCHEDULED, acceptedTripId));
+            capture(statements, "TripDAO.findRequestedStartingBetween",
+                    () -> tripDAO.findRequestedStartingBetween(now, now.plusHours(1), 500));
+            capture(statements, "TripDAO.findCompletedSpeedSamples",
+                    () -> tripDAO.findCompletedSpeedSamples(now.minusDays(1), 0, 1000));
+            capture(statements, "TripDAO.findByIds",
+                    () -> tripDAO.findByIds(List.of(requestedTripId, acceptedTripId)));
+            capture(statements, "TripDAO.findPendingDeadlines",
+                    () -> tripDAO.findPendingDeadlines(requestedTripId, 1000));
+            capture(statements, "TripDAO.findRequestedPage", () -> tripDAO.findRequestedPage(now, requestedTripId,
+                    new double[] { 30.0, 31.0, 30.05, 31.05 }, 50));
+            capture(statements, "TripDAO.claimRequestedTrip",
+                    () -> tripDAO.claimRequestedTrip(requestedTripId, driver));
+            capture(statements, "TripDAO.expireTrip",
+                    () -> tripDAO.expireTrip(requestedTripId, TripStatus.REQUESTED));
+            capture(statements, "TripDAO.updateStatus",
+                    () -> tripDAO.updateStatus(acceptedTripId, TripStatus.ACCEPTED, TripStatus.ONGOING));
+            capture(statements, "TripDAO.updateAssignedStatus", () -> tripDAO.updateAssignedStatus(acceptedTripId,
+                    driverId, TripStatus.ACCEPTED, TripStatus.COMPLETED));
+            capture(statements, "TripDAO.unassignTrip",
+                    () -> tripDAO.unassignTrip(acceptedTripId, driverId, TripStatus.ACCEPTED));
+            capture(statements, "DriverDAO.findAvailableWithCarByIds",
+                    () -> driverDAO.findAvailableWithCarByIds(List.of(driverId, driverId + 1)));
+            capture(statements, "DriverDAO.reserveTripSlot", () -> driverDAO.reserveTripSlot(driver));
+            capture(statements, "DriverDAO.releaseTripSlot", () -> driverDAO.releaseTripSlot(driver));
+            List<DriverCapacityRow> rows = new ArrayList<>();
+            capture(statements, "DriverDAO.findCapacityRows",
+                    () -> rows.addAll(driverDAO.findCapacityRows(firstDriverId - 1, 1000)));
+            capture(statements, "DriverDAO.correctCapacity", () -> driverDAO.correctCapacity(rows.get(0)));
+            capture(statements, "PaymentDAO.findByTripId", () -> paymentDAO.findByTripId(acceptedTripId));
+
+            status.setRollbackOnly();
+        });
+
+        List<String> fullScans = new ArrayList<>();
+        statements.forEach((name, captured) -> {
+            for (CapturedStatement statement : captured) {
+                List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + statement.sql(),
+                        statement.parameters().toArray());
+                for (Map<String, Object> row : plan) {
+                    if ("ALL".equals(row.get("type")))
+                        fullScans.add(name + " scans " + row.get("table") + " (" + row.get("rows") + " rows): "
+                                + statement.sql());
+                }
+            }
+        });
+        assertTrue(fullScans.isEmpty(), String.join("\n", fullScans));
+    }
+
+    private static void capture(Map<String, List<CapturedStatement>> statements, String name, Runnable daoCall) {
+        StatementCapture.start();
+        try {
+            daoCall.run();
+        } finally {
+            statements.put(name, StatementCapture.stop());
+        }
+        assertFalse(statements.get(name).isEmpty(), name + " sent no SQL");
+    }
+
+    record CapturedStatement(String sql, List<Object> parameters) {
+    }
+
+    /**
+     * Hands Hibernate a DataSource whose prepared statements record their SQL
+     * and parameters as they execute, while a capture is running on the thread.
+     */
+    @TestConfiguration
+    static class StatementCapture {
+
+        private static final ThreadLocal<List<CapturedStatement>> captured = new ThreadLocal<>();
+
+        static void start() {
+            captured.set(new ArrayList<>());
+        }
+
+        static List<CapturedStatement> stop() {
+            List<CapturedStatement> statements = captured.get();
+            captured.remove();
+            return statements;
+        }
+
+        // before the factory starts, so Hibernate and the JPA transaction manager only ever see the wrapper
+        @Bean
+        static BeanPostProcessor capturingEntityManagerDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    if (bean instanceof LocalContainerEntityManagerFactoryBean factoryBean)
+                        factoryBean.setDataSource(new CapturingDataSource(factoryBean.getDataSource()));
+                    return bean;
+                }
+            };
+        }
+
+        private static class CapturingDataSource extends DelegatingDataSource {
+
+            CapturingDataSource(DataSource target) {
+                super(target);
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return proxy(Connection.class, super.getConnection(), (connection, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement"))
+                        return capturing(statement, (String) args[0]);
+                    return result;
+                });
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                throw new UnsupportedOperationException();
+            }
+
+            private static PreparedStatement capturing(PreparedStatement statement, String sql) {
+                Map<Integer, Object> parameters = new TreeMap<>();
+                return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index)
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    else if (name.equals("clearParameters"))
+                        parameters.clear();
+                    else if (name.startsWith("execute") || name.equals("addBatch")) {
+                        List<CapturedStatement> statements = captured.get();
+                        if (statements != null)
+                            statements.add(new CapturedStatement(sql, new ArrayList<>(parameters.values())));
+                    }
+                    return invoke(target, method, args);
+                });
+            }
+
+            private static <T> T proxy(Class<T> type, T target, TargetHandler<T> handler) {
+                InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+                return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                        invocationHandler));
+            }
+
+            private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+
+        private interface TargetHandler<T> {
+            Object handle(T target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.luv2code.springboot.cruddemo;
+
+import com.luv2code.springboot.cruddemo.entites.Car;
+import com.luv2code.springboot.cruddemo.entites.Customer;
+import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import com.luv2code.springboot.cruddemo.entites.UserBase;
+import com.luv2code.springboot.cruddemo.exception.DriverBookedMoreThan3TripsException;
+import com.luv2code.springboot.cruddemo.exception.TripNotRequestedException;
+import com.luv2code.springboot.cruddemo.service.TripService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 100 drivers race to accept the same 100 trips, each trying every trip in
+ * its own order. Every trip must end up with exactly one driver, and that
+ * driver must be the one whose accept call succeeded, and every driver's
+ * booking counter must match the trips they won. Losing a race is the only
+ * acceptable failure; anything else, such as a deadlock or a pool timeout,
+ * fails the test.
+ *
+ * Runs against a schema of its own on the server from application.properties,
+ * created and migrated on first use, so fixtures never land in the app's data.
+ */
+@SpringBootTest(properties = "spring.datasource.url="
+        + "jdbc:mysql://localhost:3306/miniuber_contention?createDatabaseIfNotExist=true&rewriteBatchedStatements=true")
+class TripAcceptContentionTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TripAcceptContentionTest.class);
+
+    private static final int DRIVERS = 100;
+    private static final int TRIPS = 100;
+
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Customer customer;
+    private final List<Driver> drivers = new ArrayList<>();
+    private final List<Car> cars = new ArrayList<>();
+    private final List<Long> tripIds = new ArrayList<>();
+
+    @BeforeEach
+    void createFixtures() {
+        String run = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        transactionTemplate.executeWithoutResult(status -> {
+            customer = new Customer();
+            fillUser(customer, "customer-" + run + "@example.com");
+            entityManager.persist(customer);
+
+            for (int i = 0; i < DRIVERS; i++) {
+                Driver driver = new Driver();
+                fillUser(driver, "driver-" + run + "-" + i + "@example.com");
+                driver.setLicenseNumber("BENCH-" + run + "-" + i);
+                entityManager.persist(driver);
+                drivers.add(driver);
+
+                Car car = new Car();
+                car.setModel("Bench");
+                car.setColor("White");
+                car.setLicensePlate("BENCH-" + run + "-" + i);
+                car.setDriver(driver);
+                entityManager.persist(car);
+                cars.add(car);
+            }
+
+            // two hours apart, so schedule rules never decide who wins
+            LocalDateTime first = LocalDateTime.now().plusDays(1);
+            for (int i = 0; i < TRIPS; i++) {
+                Trip trip = new Trip();
+                trip.setPickupLocation("Bench pickup " + i);
+                trip.setDestination("Bench destination " + i);
+                trip.setTripDate(first.plusHours(2L * i));
+                trip.setEstimatedMinutes(30);
+                trip.setStatus(TripStatus.REQUESTED);
+                trip.setCustomer(customer);
+                entityManager.persist(trip);
+                tripIds.add(trip.getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void deleteFixtures() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM Trip t WHERE t.id IN :ids")
+                    .setParameter("ids", tripIds).executeUpdate();
+            entityManager.createQuery("DELETE FROM Car c WHERE c.id IN :ids")
+                    .setParameter("ids", cars.stream().map(Car::getId).toList()).executeUpdate();
+            entityManager.createQuery("DELETE FROM Driver d WHERE d.id IN :ids")
+                    .setParameter("ids", drivers.stream().map(Driver::getId).toList()).executeUpdate();
+            entityManager.createQuery("DELETE FROM Customer c WHERE c.id = :id")
+                    .setParameter("id", customer.getId()).executeUpdate();
+        });
+    }
+
+    @Test
+    void everyTripIsAcceptedExactlyOnce() throws InterruptedException {
+        Map<Long, List<Long>> winners = new ConcurrentHashMap<>();
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        Queue<RuntimeException> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(DRIVERS);
+
+        for (Driver driver : drivers) {
+            List<Long> order = new ArrayList<>(tripIds);
+            Collections.shuffle(order, new Random(driver.getId()));
+            pool.submit(() -> {
+                start.await();
+                for (long tripId : order) {
+                    attempts.incrementAndGet();
+                    try {
+                        tripService.acceptTrip(driver.getId(), tripId);
+                        winners.computeIfAbsent(tripId, id -> Collections.synchronizedList(new ArrayList<>()))
+                                .add(driver.getId());
+                    } catch (TripNotRequestedException | DriverBookedMoreThan3TripsException e) {
+                        rejected.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        unexpected.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        log.info("{} accept attempts by {} drivers in {} s: {} attempts/s, {} accepted, {} rejected, {} failed",
+                attempts.get(), DRIVERS, String.format("%.2f", seconds), Math.round(attempts.get() / seconds),
+                winners.size(), rejected.get(), unexpected.size());
+        if (!unexpected.isEmpty())
+            fail(unexpected.size() + " accepts failed other than by losing a race", unexpected.peek());
+
+        for (long tripId : tripIds) {
+            List<Long> tripWinners = winners.getOrDefault(tripId, List.of());
+            assertEquals(1, tripWinners.size(), "accepted by " + tripWinners + ": trip " + tripId);
+            Trip stored = entityManager.find(Trip.class, tripId);
+            assertEquals(TripStatus.ACCEPTED, stored.getStatus());
+            assertEquals(tripWinners.get(0), stored.getDriver().getId());
+        }
+        Map<Long, Long> won = winners.values().stream()
+                .collect(Collectors.groupingBy(tripWinners -> tripWinners.get(0), Collectors.counting()));
+        for (Driver driver : drivers) {
+            Driver stored = entityManager.find(Driver.class, driver.getId());
+            long expected = won.getOrDefault(driver.getId(), 0L);
+            assertEquals(expected, stored.getCurrentBookedTrips(), "booked trips of driver " + driver.getId());
+            assertEquals(expected < Driver.MAX_BOOKED_TRIPS, stored.isAvailable());
+        }
+    }
+
+    private static void fillUser(UserBase user, String email) {
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setEmail(email);
+        user.setPhone("01000000000");
+        user.setPassword("bench-password");
+    }
+}
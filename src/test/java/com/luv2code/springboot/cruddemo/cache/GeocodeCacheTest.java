@@ -0,0 +1,88 @@
+package com.luv2code.springboot.cruddemo.cache;
+
+import com.luv2code.springboot.cruddemo.dto.GeocodeCacheStatsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Lookup, expiry, least-recently-used eviction and the snapshot round trip.
+ * A time to live of zero minutes makes every entry expire as soon as it is
+ * written, so expiry needs no clock.
+ */
+class GeocodeCacheTest {
+
+    private static final double[] AIRPORT = { 30.1219, 31.4056 };
+    private static final double[] TAHRIR = { 30.0444, 31.2357 };
+    private static final double[] ZAMALEK = { 30.0609, 31.2194 };
+
+    @Test
+    void differentSpellingsShareAnEntry() {
+        GeocodeCache cache = new GeocodeCache(10, 60, "");
+        cache.put("Cairo International Airport", AIRPORT);
+
+        assertArrayEquals(AIRPORT, cache.get("  cairo   INTERNATIONAL airport "));
+        assertNull(cache.get("Tahrir Square"));
+
+        GeocodeCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRatio());
+    }
+
+    @Test
+    void expiredEntriesAreMissesAndRemoved() {
+        GeocodeCache cache = new GeocodeCache(10, 0, "");
+        cache.put("Tahrir Square", TAHRIR);
+
+        assertNull(cache.get("Tahrir Square"));
+
+        GeocodeCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getExpirations());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0, stats.getSize());
+    }
+
+    @Test
+    void theLeastRecentlyReadEntryIsEvictedWhenFull() {
+        GeocodeCache cache = new GeocodeCache(2, 60, "");
+        cache.put("Cairo International Airport", AIRPORT);
+        cache.put("Tahrir Square", TAHRIR);
+        // reading the airport makes Tahrir the eldest
+        cache.get("Cairo International Airport");
+        cache.put("Zamalek", ZAMALEK);
+
+        assertNull(cache.get("Tahrir Square"));
+        assertArrayEquals(AIRPORT, cache.get("Cairo International Airport"));
+        assertArrayEquals(ZAMALEK, cache.get("Zamalek"));
+
+        GeocodeCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2, stats.getSize());
+    }
+
+    @Test
+    void liveEntriesSurviveARestartThroughTheSnapshot(@TempDir Path dir) {
+        String snapshot = dir.resolve("geocode-cache.tsv").toString();
+        GeocodeCache before = new GeocodeCache(10, 60, snapshot);
+        before.put("Cairo International Airport", AIRPORT);
+        before.writeSnapshot();
+
+        GeocodeCache after = new GeocodeCache(10, 60, snapshot);
+        after.loadSnapshot();
+        assertArrayEquals(AIRPORT, after.get("Cairo International Airport"));
+
+        // entries already expired when the snapshot was written are not reloaded
+        GeocodeCache expired = new GeocodeCache(10, 0, snapshot);
+        expired.put("Tahrir Square", TAHRIR);
+        expired.writeSnapshot();
+        GeocodeCache reloaded = new GeocodeCache(10, 60, snapshot);
+        reloaded.loadSnapshot();
+        assertEquals(0, reloaded.stats().getSize());
+    }
+}
@@ -0,0 +1,90 @@
+package com.luv2code.springboot.cruddemo.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Which target the router picks; no database is involved. For routing
+ * against real servers, point {@code datasource.replica.urls} at a second
+ * local MySQL instance replicating from the first.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaLagMonitor monitor;
+    private ReplicaRoutingDataSource router;
+
+    @BeforeEach
+    void createRouter() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", new SimpleDriverDataSource());
+        replicas.put("replica-2", new SimpleDriverDataSource());
+        monitor = new ReplicaLagMonitor(replicas, 5, 1000);
+        router = new ReplicaRoutingDataSource(new SimpleDriverDataSource(), monitor);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        monitor.record("replica-1", 0L);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, router.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransactionsTakeCaughtUpReplicasInTurn() {
+        monitor.record("replica-1", 0L);
+        monitor.record("replica-2", 5L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-1", router.determineCurrentLookupKey());
+        assertEquals("replica-2", router.determineCurrentLookupKey());
+        assertEquals("replica-1", router.determineCurrentLookupKey());
+    }
+
+    @Test
+    void laggingOrUnreachableReplicasAreSkipped() {
+        monitor.record("replica-1", 6L);
+        monitor.record("replica-2", 0L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica-2", router.determineCurrentLookupKey());
+
+        monitor.record("replica-2", null);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, router.determineCurrentLookupKey());
+
+        monitor.record("replica-1", 1L);
+        assertEquals("replica-1", router.determineCurrentLookupKey());
+    }
+
+    @Test
+    void replicasWithStaleChecksAreSkipped() {
+        long stale = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(1000 * ReplicaLagMonitor.STALE_AFTER_CHECKS + 1);
+        monitor.record("replica-1", 0L, stale);
+        monitor.record("replica-2", 0L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica-2", router.determineCurrentLookupKey());
+        assertEquals("replica-2", router.determineCurrentLookupKey());
+
+        monitor.record("replica-2", 0L, stale);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, router.determineCurrentLookupKey());
+    }
+
+    @Test
+    void replicasAreUnusedUntilFirstChecked() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, router.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,155 @@
+package com.luv2code.springboot.cruddemo.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SparseAssignment} against brute force on small random instances,
+ * including heavy ties, duplicate edges and more bidders than objects.
+ */
+class SparseAssignmentTest {
+
+    @Test
+    void matchesBruteForceOnRandomInstances() {
+        Random random = new Random(11);
+        for (int round = 0; round < 3000; round++) {
+            int bidders = 1 + random.nextInt(6);
+            int objects = 1 + random.nextInt(6);
+            // a narrow benefit range makes ties common
+            int range = round % 2 == 0 ? 3 : 1000;
+            Instance instance = randomInstance(random, bidders, objects, range);
+
+            int[] assignment = SparseAssignment.solve(bidders, objects, instance.start, instance.objects,
+                    instance.benefits);
+
+            assertValid(instance, bidders, objects, assignment);
+            assertEquals(bruteForce(instance, bidders, objects), value(instance, bidders, assignment),
+                    "round " + round);
+        }
+    }
+
+    @Test
+    void assignsEveryDriverWhenManyTripsTieForFew() {
+        int trips = 500;
+        int drivers = 10;
+        int[] start = new int[trips + 1];
+        int[] objects = new int[trips * drivers];
+        long[] benefits = new long[trips * drivers];
+        for (int i = 0; i < trips; i++) {
+            start[i] = i * drivers;
+            for (int j = 0; j < drivers; j++) {
+                objects[i * drivers + j] = j;
+                benefits[i * drivers + j] = -600;
+            }
+        }
+        start[trips] = trips * drivers;
+
+        int[] assignment = SparseAssignment.solve(trips, drivers, start, objects, benefits);
+
+        boolean[] taken = new boolean[drivers];
+        int assigned = 0;
+        for (int object : assignment) {
+            if (object < 0)
+                continue;
+            assertTrue(!taken[object], "driver " + object + " assigned twice");
+            taken[object] = true;
+            assigned++;
+        }
+        assertEquals(drivers, assigned);
+    }
+
+    @Test
+    void handlesNoBiddersAndNoEdges() {
+        assertEquals(0, SparseAssignment.solve(0, 3, new int[] { 0 }, new int[0], new long[0]).length);
+        int[] assignment = SparseAssignment.solve(2, 3, new int[] { 0, 0, 0 }, new int[0], new long[0]);
+        assertEquals(-1, assignment[0]);
+        assertEquals(-1, assignment[1]);
+    }
+
+    private static Instance randomInstance(Random random, int bidders, int objects, int range) {
+        int[] start = new int[bidders + 1];
+        List<Integer> edgeObjects = new ArrayList<>();
+        List<Long> edgeBenefits = new ArrayList<>();
+        for (int i = 0; i < bidders; i++) {
+            start[i] = edgeObjects.size();
+            int edges = random.nextInt(objects + 2);
+            for (int e = 0; e < edges; e++) {
+                edgeObjects.add(random.nextInt(objects));
+                edgeBenefits.add((long) random.nextInt(range) - range / 2);
+            }
+        }
+        start[bidders] = edgeObjects.size();
+        return new Instance(start, edgeObjects.stream().mapToInt(Integer::intValue).toArray(),
+                edgeBenefits.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private static void assertValid(Instance instance, int bidders, int objects, int[] assignment) {
+        assertEquals(bidders, assignment.length);
+        boolean[] taken = new boolean[objects];
+        for (int i = 0; i < bidders; i++) {
+            int object = assignment[i];
+            if (object < 0)
+                continue;
+            assertTrue(!taken[object], "object " + object + " assigned twice");
+            taken[object] = true;
+            assertTrue(bestEdge(instance, i, object) != Long.MIN_VALUE, "bidder " + i + " has no edge to " + object);
+        }
+    }
+
+    // total benefit, with unassigned bidders counted at the dummy benefit the solver uses
+    private static long value(Instance instance, int bidders, int[] assignment) {
+        long total = 0;
+        for (int i = 0; i < bidders; i++)
+            total += assignment[i] < 0 ? instance.dummyBenefit() : bestEdge(instance, i, assignment[i]);
+        return total;
+    }
+
+    private static long bruteForce(Instance instance, int bidders, int objects) {
+        return bruteForce(instance, 0, bidders, new boolean[objects]);
+    }
+
+    private static long bruteForce(Instance instance, int bidder, int bidders, boolean[] taken) {
+        if (bidder == bidders)
+            return 0;
+        long best = instance.dummyBenefit() + bruteForce(instance, bidder + 1, bidders, taken);
+        for (int object = 0; object < taken.length; object++) {
+            long benefit = bestEdge(instance, bidder, object);
+            if (taken[object] || benefit == Long.MIN_VALUE)
+                continue;
+            taken[object] = true;
+            best = Math.max(best, benefit + bruteForce(instance, bidder + 1, bidders, taken));
+            taken[object] = false;
+        }
+        return best;
+    }
+
+    private static long bestEdge(Instance instance, int bidder, int object) {
+        long best = Long.MIN_VALUE;
+        for (int e = instance.start[bidder]; e < instance.start[bidder + 1]; e++) {
+            if (instance.objects[e] == object)
+                best = Math.max(best, instance.benefits[e]);
+        }
+        return best;
+    }
+
+    private record Instance(int[] start, int[] objects, long[] benefits) {
+
+        long dummyBenefit() {
+            if (benefits.length == 0)
+                return 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long benefit : benefits) {
+                min = Math.min(min, benefit);
+                max = Math.max(max, benefit);
+            }
+            return min - (max - min) - 1;
+        }
+    }
+}
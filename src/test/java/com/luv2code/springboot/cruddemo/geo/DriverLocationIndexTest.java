@@ -0,0 +1,102 @@
+package com.luv2code.springboot.cruddemo.geo;
+
+import com.luv2code.springboot.cruddemo.dto.NearbyDriverDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Nearest-driver searches on a grid of 0.01 degree cells, about 1.1 km by
+ * 0.96 km in Cairo, checked against sorting every driver by distance.
+ */
+class DriverLocationIndexTest {
+
+    private static final double CELL = 0.01;
+    // a point inside a cell, 0.001 degrees from its eastern edge
+    private static final double LAT = 30.045;
+    private static final double LON = 31.239;
+
+    private final DriverLocationIndex index = new DriverLocationIndex(CELL);
+
+    @Test
+    void aCloserDriverInTheNextCellBeatsOneInTheSameCell() {
+        index.update(1, LAT, 31.2305, 0, true);
+        index.update(2, LAT, 31.2405, 0, true);
+
+        assertEquals(List.of(2L, 1L), ids(index.nearest(LAT, LON, 2, 5000, 0)));
+        assertEquals(List.of(2L), ids(index.nearest(LAT, LON, 1, 5000, 0)));
+    }
+
+    @Test
+    void kNearestMatchesABruteForceSearchAcrossCells() {
+        Random random = new Random(42);
+        List<double[]> drivers = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            double[] position = { LAT + (random.nextDouble() - 0.5) * 0.2, LON + (random.nextDouble() - 0.5) * 0.2 };
+            drivers.add(position);
+            index.update(id, position[0], position[1], 0, true);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double lat = LAT + (random.nextDouble() - 0.5) * 0.2;
+            double lon = LON + (random.nextDouble() - 0.5) * 0.2;
+            int k = 1 + random.nextInt(20);
+            double maxMeters = 500 + random.nextInt(4000);
+
+            List<Long> expected = new ArrayList<>();
+            for (int id = 0; id < drivers.size(); id++) {
+                if (DriverLocationIndex.metersBetween(lat, lon, drivers.get(id)[0], drivers.get(id)[1]) <= maxMeters)
+                    expected.add((long) id);
+            }
+            expected.sort(Comparator.comparingDouble(id -> DriverLocationIndex.metersBetween(lat, lon,
+                    drivers.get(id.intValue())[0], drivers.get(id.intValue())[1])));
+
+            assertEquals(expected.subList(0, Math.min(k, expected.size())),
+                    ids(index.nearest(lat, lon, k, maxMeters, 0)), "query " + query);
+        }
+    }
+
+    @Test
+    void unavailableStaleAndDistantDriversAreLeftOut() {
+        index.update(1, LAT, LON + 0.001, 0, true);
+        index.update(2, LAT, LON + 0.002, 0, false);
+        index.update(3, LAT, LON + 0.003, 100, true);
+        index.update(4, LAT + 0.1, LON, 100, true);
+
+        assertEquals(List.of(3L), ids(index.nearest(LAT, LON, 10, 5000, 50)));
+        assertEquals(List.of(1L, 3L), ids(index.nearest(LAT, LON, 10, 5000, 0)));
+        assertEquals(List.of(), index.nearest(LAT, LON, 0, 5000, 0));
+
+        index.setAvailable(2, true);
+        index.setAvailable(1, false);
+        assertEquals(List.of(2L, 3L), ids(index.nearest(LAT, LON, 10, 5000, 0)));
+
+        index.remove(3);
+        assertEquals(List.of(2L), ids(index.nearest(LAT, LON, 10, 5000, 0)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void driversMoveBetweenCellsAndLatePingsAreIgnored() {
+        index.update(1, LAT, LON, 100, true);
+        index.update(1, LAT + 0.05, LON, 200, true);
+        // an older ping arriving late would put the driver back in the first cell
+        index.update(1, LAT, LON, 150, true);
+
+        assertEquals(List.of(), index.nearest(LAT, LON, 1, 1000, 0));
+        List<NearbyDriverDTO> moved = index.nearest(LAT + 0.05, LON, 1, 1000, 0);
+        assertEquals(List.of(1L), ids(moved));
+        assertEquals(200, moved.get(0).getUpdatedAt());
+        assertTrue(moved.get(0).getDistanceMeters() < 1);
+    }
+
+    private static List<Long> ids(List<NearbyDriverDTO> drivers) {
+        return drivers.stream().map(NearbyDriverDTO::getDriverId).toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.luv2code.springboot.cruddemo.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Exact and fuzzy lookups in the trie. Names are passed already normalized,
+ * as GazetteerLocationService does.
+ */
+class PlaceNameIndexTest {
+
+    private static final double[] CITY_STARS_MALL = { 30.0728, 31.3460 };
+    private static final double[] CITY_STARS_HALL = { 30.0731, 31.3472 };
+    private static final double[] AIRPORT = { 30.1219, 31.4056 };
+    private static final double[] AIRPORT_ROAD = { 30.1100, 31.3900 };
+
+    private final PlaceNameIndex index = new PlaceNameIndex.Builder()
+            .add("city stars mall", CITY_STARS_MALL[0], CITY_STARS_MALL[1])
+            .add("city stars hall", CITY_STARS_HALL[0], CITY_STARS_HALL[1])
+            .add("cairo international airport", AIRPORT[0], AIRPORT[1])
+            .add("cairo international airport road", AIRPORT_ROAD[0], AIRPORT_ROAD[1])
+            .build();
+
+    @Test
+    void anExactMatchBeatsANearbyFuzzyMatch() {
+        assertArrayEquals(CITY_STARS_MALL, index.lookup("city stars mall", 2));
+        assertArrayEquals(CITY_STARS_HALL, index.lookup("city stars hall", 2));
+    }
+
+    @Test
+    void typosWithinTheBudgetResolveToTheClosestName() {
+        assertArrayEquals(AIRPORT, index.lookup("cairo internationl airport", 1));
+        assertArrayEquals(AIRPORT, index.lookup("cairo internationl airprt", 2));
+        // two edits from "airport" and three from "airport road"
+        assertArrayEquals(AIRPORT, index.lookup("cairo international airport r", 2));
+    }
+
+    @Test
+    void namesOutsideTheBudgetAreMisses() {
+        assertNull(index.lookup("cairo internationl airprt", 1));
+        assertNull(index.lookup("cairo internationl airport", 0));
+        // a prefix of a stored name is not a place of its own
+        assertNull(index.lookup("city stars", 0));
+        assertNull(PlaceNameIndex.empty().lookup("city stars mall", 2));
+    }
+
+    @Test
+    void theFirstCoordinatesForADuplicateNameWin() {
+        PlaceNameIndex duplicates = new PlaceNameIndex.Builder()
+                .add("tahrir square", 30.0444, 31.2357)
+                .add("tahrir square", 0, 0)
+                .add("", 1, 1)
+                .build();
+
+        assertEquals(1, duplicates.size());
+        assertArrayEquals(new double[] { 30.0444, 31.2357 }, duplicates.lookup("tahrir square", 0));
+    }
+
+    @Test
+    void theArraysGrowPastTheirInitialCapacity() {
+        PlaceNameIndex.Builder builder = new PlaceNameIndex.Builder();
+        for (int i = 0; i < 2000; i++)
+            builder.add("place " + i, i, -i);
+        PlaceNameIndex large = builder.build();
+
+        assertEquals(2000, large.size());
+        assertArrayEquals(new double[] { 1999, -1999 }, large.lookup("place 1999", 0));
+        assertArrayEquals(new double[] { 7, -7 }, large.lookup("place 7", 0));
+    }
+}
@@ -0,0 +1,101 @@
+package com.luv2code.springboot.cruddemo.pricing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quotes from the compiled {@link FarePolicy} against the decorator chain it
+ * replaced, reproduced here without the scratch Trip it carried: a base fare
+ * wrapped once per selected option, built for every quote. Each operation
+ * quotes 1024 trips cycling through every option combination.
+ *
+ * Run with {@code mvn -P jmh -DskipTests test -Djmh.args=FarePolicyBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FarePolicyBenchmark {
+
+    private static final int QUOTES = 1024;
+
+    private final FarePolicy policy = new FarePolicy(1180, 430, new long[] { 2500, 1500 });
+    private final double[] distances = new double[QUOTES];
+
+    @Setup
+    public void createDistances() {
+        Random random = new Random(42);
+        for (int i = 0; i < QUOTES; i++)
+            distances[i] = random.nextDouble() * 40;
+    }
+
+    @Benchmark
+    public double decorators() {
+        double total = 0;
+        for (int i = 0; i < QUOTES; i++)
+            total += decoratorFare(distances[i], (i & 1) != 0, (i & 2) != 0);
+        return total;
+    }
+
+    @Benchmark
+    public long farePolicy() {
+        long total = 0;
+        for (int i = 0; i < QUOTES; i++)
+            total += policy.fareMinor(distances[i], FarePolicy.flags((i & 1) != 0, (i & 2) != 0));
+        return total;
+    }
+
+    private static double decoratorFare(double distance, boolean premium, boolean childSeat) {
+        Fare fare = new BaseFare(11.80 + distance * 4.30);
+        if (premium)
+            fare = new Surcharge(fare, 25);
+        if (childSeat)
+            fare = new Surcharge(fare, 15);
+        return fare.getFare();
+    }
+
+    private interface Fare {
+        double getFare();
+    }
+
+    private static class BaseFare implements Fare {
+        private final double fare;
+
+        BaseFare(double fare) {
+            this.fare = fare;
+        }
+
+        @Override
+        public double getFare() {
+            return fare;
+        }
+    }
+
+    private static class Surcharge implements Fare {
+        private final Fare decorated;
+        private final double amount;
+
+        Surcharge(Fare decorated, double amount) {
+            this.decorated = decorated;
+            this.amount = amount;
+        }
+
+        @Override
+        public double getFare() {
+            return decorated.getFare() + amount;
+        }
+    }
+}
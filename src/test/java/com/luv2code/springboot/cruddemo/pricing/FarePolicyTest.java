@@ -0,0 +1,47 @@
+package com.luv2code.springboot.cruddemo.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The compiled {@link FarePolicy} must charge what the decorator chain it
+ * replaced did, to the piastre: the base fare plus the per-km rate, plus 25
+ * and 15 pounds for the premium and child seat options. Its throughput
+ * against that chain is in {@link FarePolicyBenchmark}.
+ */
+class FarePolicyTest {
+
+    private final FarePolicy policy = new FarePolicy(1180, 430, new long[] { 2500, 1500 });
+
+    @Test
+    void policyMatchesDecorators() {
+        Random random = new Random(42);
+        for (int i = 0; i < 4096; i++) {
+            double distance = random.nextDouble() * 40;
+            boolean premium = (i & 1) != 0;
+            boolean childSeat = (i & 2) != 0;
+            double decoratorFare = 11.80 + distance * 4.30 + (premium ? 25 : 0) + (childSeat ? 15 : 0);
+            assertEquals(Math.round(decoratorFare * 100), policy.fareMinor(distance, FarePolicy.flags(premium, childSeat)),
+                    distance + " km, premium " + premium + ", child seat " + childSeat);
+        }
+    }
+
+    @Test
+    void surchargesAddUpPerFlag() {
+        assertEquals(1180, policy.fareMinor(0, 0));
+        assertEquals(1180 + 2500, policy.fareMinor(0, FarePolicy.PREMIUM));
+        assertEquals(1180 + 1500, policy.fareMinor(0, FarePolicy.CHILD_SEAT));
+        assertEquals(1180 + 4000, policy.fareMinor(0, FarePolicy.PREMIUM | FarePolicy.CHILD_SEAT));
+    }
+
+    @Test
+    void rejectsInvalidTables() {
+        assertThrows(IllegalArgumentException.class, () -> new FarePolicy(1180, 430, new long[] { 2500 }));
+        assertThrows(IllegalArgumentException.class, () -> new FarePolicy(-1, 430, new long[] { 2500, 1500 }));
+        assertThrows(IllegalArgumentException.class, () -> new FarePolicy(1180, 430, new long[] { 2500, -1 }));
+    }
+}
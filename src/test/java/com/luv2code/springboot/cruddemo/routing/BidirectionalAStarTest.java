@@ -0,0 +1,132 @@
+package com.luv2code.springboot.cruddemo.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Travel times from {@link BidirectionalAStar} against a plain Dijkstra over
+ * the same edges, for every pair of nodes on a small random street grid with
+ * one-way streets, missing blocks and mixed speeds.
+ */
+class BidirectionalAStarTest {
+
+    private static final int SIDE = 12;
+    private static final double SPACING_DEGREES = 0.005;
+
+    private RoadGraph graph;
+
+    @BeforeEach
+    void buildGrid() {
+        Random random = new Random(7);
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        double[] lats = new double[SIDE * SIDE];
+        double[] lons = new double[SIDE * SIDE];
+        for (int row = 0; row < SIDE; row++) {
+            for (int col = 0; col < SIDE; col++) {
+                int node = row * SIDE + col;
+                lats[node] = 30.0 + row * SPACING_DEGREES + random.nextDouble() * 0.001;
+                lons[node] = 31.2 + col * SPACING_DEGREES + random.nextDouble() * 0.001;
+                builder.addNode(lats[node], lons[node]);
+            }
+        }
+        for (int node = 0; node < SIDE * SIDE; node++) {
+            if (node % SIDE + 1 < SIDE)
+                addStreet(builder, random, lats, lons, node, node + 1);
+            if (node + SIDE < SIDE * SIDE)
+                addStreet(builder, random, lats, lons, node, node + SIDE);
+        }
+        // a node with no streets, so some pairs have no route
+        builder.addNode(30.1, 31.3);
+        graph = builder.build();
+    }
+
+    @Test
+    void matchesDijkstraForEveryPair() {
+        BidirectionalAStar astar = new BidirectionalAStar(graph, 1);
+        for (int source = 0; source < graph.nodeCount; source++) {
+            double[] expected = dijkstra(source);
+            for (int target = 0; target < graph.nodeCount; target++) {
+                RouteResult route = astar.route(source, target);
+                if (expected[target] == Double.POSITIVE_INFINITY) {
+                    assertNull(route, source + " -> " + target);
+                } else {
+                    assertNotNull(route, source + " -> " + target);
+                    assertEquals(expected[target], route.getSeconds(), 1e-6, source + " -> " + target);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sharesSearchStatesAcrossMoreThreadsThanTheLimit() throws Exception {
+        BidirectionalAStar astar = new BidirectionalAStar(graph, 2);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int source = 0; source < SIDE * SIDE; source++) {
+                int from = source;
+                results.add(pool.submit(() -> {
+                    double[] expected = dijkstra(from);
+                    for (int target = 0; target < SIDE * SIDE; target++) {
+                        RouteResult route = astar.route(from, target);
+                        double seconds = route == null ? Double.POSITIVE_INFINITY : route.getSeconds();
+                        assertEquals(expected[target], seconds, 1e-6);
+                    }
+                }));
+            }
+            for (Future<?> result : results)
+                result.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // lengths are never shorter than the straight line, which keeps the A* heuristic admissible
+    private static void addStreet(RoadGraph.Builder builder, Random random, double[] lats, double[] lons,
+            int a, int b) {
+        if (random.nextInt(10) == 0)
+            return;
+        int meters = (int) Math.ceil(RoadGraph.metersBetween(lats[a], lons[a], lats[b], lons[b]))
+                + random.nextInt(200);
+        float seconds = (float) (meters / ((20 + random.nextInt(60)) / 3.6));
+        switch (random.nextInt(4)) {
+            case 0 -> builder.addEdge(a, b, meters, seconds);
+            case 1 -> builder.addEdge(b, a, meters, seconds);
+            default -> builder.addEdge(a, b, meters, seconds).addEdge(b, a, meters, seconds);
+        }
+    }
+
+    private double[] dijkstra(int source) {
+        double[] seconds = new double[graph.nodeCount];
+        boolean[] settled = new boolean[graph.nodeCount];
+        Arrays.fill(seconds, Double.POSITIVE_INFINITY);
+        seconds[source] = 0;
+        for (int round = 0; round < graph.nodeCount; round++) {
+            int u = -1;
+            for (int v = 0; v < graph.nodeCount; v++) {
+                if (!settled[v] && (u < 0 || seconds[v] < seconds[u]))
+                    u = v;
+            }
+            if (seconds[u] == Double.POSITIVE_INFINITY)
+                break;
+            settled[u] = true;
+            for (int e = graph.outStart[u]; e < graph.outStart[u + 1]; e++) {
+                int v = graph.outTarget[e];
+                seconds[v] = Math.min(seconds[v], seconds[u] + graph.outSeconds[e]);
+            }
+        }
+        return seconds;
+    }
+}
@@ -0,0 +1,82 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.geo.GeoPoints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distances from one point to a page of 200 trip pickups, the way
+ * {@code findRequestedTrips} filters a page: a {@code calculateDistance} call
+ * per trip, one {@code distancesFrom} pass including building the points, and
+ * the equirectangular fast path over prebuilt points. Plus a 50 by 200
+ * {@code distanceMatrix}. Scores are per page (per matrix).
+ *
+ * Run with {@code mvn -P jmh -DskipTests test -Djmh.args=DistanceBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+
+    private static final int POINTS = 200;
+    private static final int ORIGINS = 50;
+    private static final double ORIGIN_LAT = 40.7128;
+    private static final double ORIGIN_LON = -74.0060;
+
+    private final DistanceCalculatorService distanceService = new DistanceCalculatorService();
+    private final double[] lats = new double[POINTS];
+    private final double[] lons = new double[POINTS];
+    private final double[] out = new double[POINTS];
+    private GeoPoints points;
+    private GeoPoints origins;
+
+    @Setup
+    public void createPoints() {
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            lats[i] = ORIGIN_LAT + (random.nextDouble() - 0.5) * 0.2;
+            lons[i] = ORIGIN_LON + (random.nextDouble() - 0.5) * 0.2;
+        }
+        points = GeoPoints.of(lats, lons);
+        origins = GeoPoints.of(lats, lons, ORIGINS);
+    }
+
+    @Benchmark
+    public double pairwise() {
+        double total = 0;
+        for (int i = 0; i < POINTS; i++)
+            total += distanceService.calculateDistance(ORIGIN_LAT, ORIGIN_LON, lats[i], lons[i]);
+        return total;
+    }
+
+    @Benchmark
+    public double[] batched() {
+        distanceService.distancesFrom(ORIGIN_LAT, ORIGIN_LON, GeoPoints.of(lats, lons), out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] approximate() {
+        distanceService.approximateDistancesFrom(ORIGIN_LAT, ORIGIN_LON, points, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] matrix() {
+        return distanceService.distanceMatrix(origins, points);
+    }
+}
@@ -0,0 +1,85 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.geo.GeoPoints;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The batch distance paths against {@code calculateDistance}. Their timings
+ * are in {@link DistanceBenchmark}.
+ */
+class DistanceCalculatorServiceTest {
+
+    private final DistanceCalculatorService distanceService = new DistanceCalculatorService();
+    private final Random random = new Random(42);
+
+    @Test
+    void distancesFromMatchesPairwise() {
+        double[] lats = randomAround(40.7128, 0.2, 200);
+        double[] lons = randomAround(-74.0060, 0.2, 200);
+
+        double[] batch = new double[lats.length];
+        distanceService.distancesFrom(40.7128, -74.0060, GeoPoints.of(lats, lons), batch);
+        for (int i = 0; i < lats.length; i++)
+            assertEquals(distanceService.calculateDistance(40.7128, -74.0060, lats[i], lons[i]), batch[i], 1e-9);
+    }
+
+    @Test
+    void distanceMatrixIsRowMajor() {
+        double[] fromLats = randomAround(30.0444, 0.5, 7);
+        double[] fromLons = randomAround(31.2357, 0.5, 7);
+        double[] toLats = randomAround(30.0444, 0.5, 11);
+        double[] toLons = randomAround(31.2357, 0.5, 11);
+
+        double[] matrix = distanceService.distanceMatrix(GeoPoints.of(fromLats, fromLons), GeoPoints.of(toLats, toLons));
+        assertEquals(7 * 11, matrix.length);
+        for (int i = 0; i < fromLats.length; i++) {
+            for (int j = 0; j < toLats.length; j++)
+                assertEquals(distanceService.calculateDistance(fromLats[i], fromLons[i], toLats[j], toLons[j]),
+                        matrix[i * toLats.length + j], 1e-9);
+        }
+    }
+
+    @Test
+    void approximationStaysWithinItsErrorBound() {
+        for (int origin = 0; origin < 200; origin++) {
+            double originLat = (random.nextDouble() - 0.5) * 139;
+            double originLon = (random.nextDouble() - 0.5) * 359;
+            // within 1 degree either way, and never past 70 degrees latitude
+            double[] lats = randomAround(originLat, 1.99, 100);
+            double[] lons = randomAround(originLon, 1.99, 100);
+            for (int i = 0; i < lats.length; i++)
+                lats[i] = Math.max(-70, Math.min(70, lats[i]));
+
+            double[] approximate = new double[lats.length];
+            distanceService.approximateDistancesFrom(originLat, originLon, GeoPoints.of(lats, lons), approximate);
+            for (int i = 0; i < lats.length; i++) {
+                double exact = distanceService.calculateDistance(originLat, originLon, lats[i], lons[i]);
+                assertTrue(Math.abs(approximate[i] - exact) <= exact * 0.001,
+                        approximate[i] + " km vs " + exact + " km from " + originLat + "," + originLon);
+            }
+        }
+    }
+
+    @Test
+    void approximationFallsBackToHaversineBeyondOneDegree() {
+        double[] lats = { 30.0444, 32.5, 30.0444, 50.0 };
+        double[] lons = { 33.0, 31.2357, 20.0, -10.0 };
+
+        double[] approximate = new double[lats.length];
+        distanceService.approximateDistancesFrom(30.0444, 31.2357, GeoPoints.of(lats, lons), approximate);
+        for (int i = 0; i < lats.length; i++)
+            assertEquals(distanceService.calculateDistance(30.0444, 31.2357, lats[i], lons[i]), approximate[i], 1e-9);
+    }
+
+    private double[] randomAround(double center, double span, int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++)
+            values[i] = center + (random.nextDouble() - 0.5) * span;
+        return values;
+    }
+}
@@ -0,0 +1,131 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.cache.DriverScheduleIndex;
+import com.luv2code.springboot.cruddemo.dao.DriverDAO;
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.DriverCandidateDTO;
+import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import com.luv2code.springboot.cruddemo.routing.SpeedProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Latency of {@code rankCandidates} with 10,000 available drivers spread over
+ * a 20 km city, for pickups at random points in it. The database is replaced
+ * by mocks answering from memory, so this measures the location search,
+ * schedule checks and scoring, not SQL. Sampled, so JMH reports p50, p99 and
+ * max.
+ *
+ * Run with {@code mvn -P jmh -DskipTests test -Djmh.args=DriverMatchingBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverMatchingBenchmark {
+
+    private static final int DRIVERS = 10_000;
+    private static final double CITY_LAT = 30.0444;
+    private static final double CITY_LON = 31.2357;
+    private static final double CITY_DEGREES = 0.18;
+
+    private final Random random = new Random(42);
+    private final Trip trip = new Trip();
+    private DriverScheduleIndex scheduleIndex;
+    private DriverMatchingService matchingService;
+
+    @Setup
+    public void createDrivers() {
+        Map<Long, Driver> drivers = new HashMap<>();
+        for (long id = 1; id <= DRIVERS; id++) {
+            Driver driver = new Driver();
+            ReflectionTestUtils.setField(driver, "id", id);
+            driver.setAvailable(true);
+            driver.setRating(1 + random.nextInt(5));
+            drivers.put(id, driver);
+        }
+
+        DriverService driverService = stub(DriverService.class);
+        when(driverService.findById(anyLong())).thenAnswer(call -> drivers.get(call.<Long>getArgument(0)));
+        DriverLocationService locationService = new DriverLocationService(driverService,
+                stub(DriverLocationWriter.class), 1024, 0.01, 120, 5000, 20000, 50);
+        // a driver's first ping is applied straight to the index, so the drainer thread is not needed
+        for (long id = 1; id <= DRIVERS; id++)
+            locationService.updateLocation(id, randomLat(), randomLon(), null);
+
+        DriverDAO driverDAO = stub(DriverDAO.class);
+        when(driverDAO.findAvailableWithCarByIds(anyList())).thenAnswer(call -> {
+            List<Driver> found = new ArrayList<>();
+            for (Long id : call.<List<Long>>getArgument(0))
+                found.add(drivers.get(id));
+            return found;
+        });
+        TripDAO tripDAO = stub(TripDAO.class);
+        when(tripDAO.findById(anyLong())).thenReturn(trip);
+        SpeedProfileService speedProfileService = stub(SpeedProfileService.class);
+        when(speedProfileService.current()).thenReturn(SpeedProfile.empty(0.05));
+
+        ReflectionTestUtils.setField(trip, "id", 1L);
+        trip.setStatus(TripStatus.REQUESTED);
+        trip.setTripDate(LocalDateTime.now().plusMinutes(10));
+        trip.setEstimatedMinutes(20);
+
+        scheduleIndex = new DriverScheduleIndex(tripDAO, stub(PlatformTransactionManager.class));
+        matchingService = new DriverMatchingService(tripDAO, driverDAO, locationService,
+                stub(LocationService.class), speedProfileService, scheduleIndex, 50, 8000, 2);
+    }
+
+    @TearDown
+    public void closeScheduleIndex() {
+        scheduleIndex.close();
+    }
+
+    @Benchmark
+    public List<DriverCandidateDTO> rankCandidates() {
+        trip.setPickupLat(randomLat());
+        trip.setPickupLon(randomLon());
+        return matchingService.rankCandidates(1L, 5);
+    }
+
+    // stub-only mocks do not record calls, which would otherwise pile up over the run
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private double randomLat() {
+        return CITY_LAT + (random.nextDouble() - 0.5) * CITY_DEGREES;
+    }
+
+    private double randomLon() {
+        return CITY_LON + (random.nextDouble() - 0.5) * CITY_DEGREES;
+    }
+}
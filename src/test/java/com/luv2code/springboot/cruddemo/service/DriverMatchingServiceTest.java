@@ -0,0 +1,129 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.cache.DriverScheduleIndex;
+import com.luv2code.springboot.cruddemo.dao.DriverDAO;
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.DriverCandidateDTO;
+import com.luv2code.springboot.cruddemo.dto.ScheduledTrip;
+import com.luv2code.springboot.cruddemo.entites.Driver;
+import com.luv2code.springboot.cruddemo.entites.Trip;
+import com.luv2code.springboot.cruddemo.entites.TripStatus;
+import com.luv2code.springboot.cruddemo.routing.SpeedProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@code rankCandidates} over a handful of drivers at known distances from
+ * the pickup, with the database replaced by mocks answering from memory.
+ * Latency over a whole city of drivers is in {@link DriverMatchingBenchmark}.
+ */
+class DriverMatchingServiceTest {
+
+    private static final double PICKUP_LAT = 30.0444;
+    private static final double PICKUP_LON = 31.2357;
+    // one km of latitude in degrees
+    private static final double KM = 1 / 111.195;
+
+    private final Map<Long, Driver> drivers = new HashMap<>();
+    private final Trip trip = new Trip();
+    private TripDAO tripDAO;
+    private DriverLocationService locationService;
+    private DriverScheduleIndex scheduleIndex;
+    private DriverMatchingService matchingService;
+
+    @BeforeEach
+    void createService() {
+        DriverService driverService = mock(DriverService.class);
+        when(driverService.findById(anyLong())).thenAnswer(call -> drivers.get(call.<Long>getArgument(0)));
+        locationService = new DriverLocationService(driverService, mock(DriverLocationWriter.class),
+                1024, 0.01, 120, 5000, 20000, 50);
+
+        DriverDAO driverDAO = mock(DriverDAO.class);
+        when(driverDAO.findAvailableWithCarByIds(anyList())).thenAnswer(call -> {
+            List<Driver> found = new ArrayList<>();
+            for (Long id : call.<List<Long>>getArgument(0))
+                found.add(drivers.get(id));
+            return found;
+        });
+        tripDAO = mock(TripDAO.class);
+        when(tripDAO.findById(1L)).thenReturn(trip);
+        SpeedProfileService speedProfileService = mock(SpeedProfileService.class);
+        when(speedProfileService.current()).thenReturn(SpeedProfile.empty(0.05));
+
+        ReflectionTestUtils.setField(trip, "id", 1L);
+        trip.setStatus(TripStatus.REQUESTED);
+        trip.setTripDate(LocalDateTime.now().plusMinutes(10));
+        trip.setEstimatedMinutes(20);
+        trip.setPickupLat(PICKUP_LAT);
+        trip.setPickupLon(PICKUP_LON);
+
+        scheduleIndex = new DriverScheduleIndex(tripDAO, mock(PlatformTransactionManager.class));
+        matchingService = new DriverMatchingService(tripDAO, driverDAO, locationService,
+                mock(LocationService.class), speedProfileService, scheduleIndex, 50, 8000, 2);
+    }
+
+    @AfterEach
+    void closeScheduleIndex() {
+        scheduleIndex.close();
+    }
+
+    @Test
+    void ranksByPickupTimeLessRating() {
+        // at the default 40 km/h: 1.5 minutes less 2 for one star, and 3 minutes less 10 for five
+        addDriver(1, 1, 1.0);
+        addDriver(2, 5, 2.0);
+
+        List<DriverCandidateDTO> candidates = matchingService.rankCandidates(1L, 5);
+        assertEquals(List.of(2L, 1L), candidates.stream().map(DriverCandidateDTO::getDriverId).toList());
+        assertEquals(-7.0, candidates.get(0).getScore(), 0.01);
+        assertEquals(-0.5, candidates.get(1).getScore(), 0.01);
+        assertEquals(1000, candidates.get(1).getDistanceMeters(), 1);
+    }
+
+    @Test
+    void dropsDriversOutOfRangeOrBookedAtThatTime() {
+        addDriver(1, 1, 1.0);
+        addDriver(2, 5, 9.0);
+        addDriver(3, 5, 0.5);
+        when(tripDAO.findScheduledTrips(eq(3L), anyList()))
+                .thenReturn(List.of(new ScheduledTrip(99L, trip.getTripDate().minusMinutes(5), 30)));
+
+        List<DriverCandidateDTO> candidates = matchingService.rankCandidates(1L, 5);
+        assertEquals(List.of(1L), candidates.stream().map(DriverCandidateDTO::getDriverId).toList());
+    }
+
+    @Test
+    void returnsAtMostTheLimit() {
+        for (long id = 1; id <= 10; id++)
+            addDriver(id, 3, id * 0.5);
+
+        List<DriverCandidateDTO> candidates = matchingService.rankCandidates(1L, 3);
+        assertEquals(List.of(1L, 2L, 3L), candidates.stream().map(DriverCandidateDTO::getDriverId).toList());
+    }
+
+    // north of the pickup by the given distance
+    private void addDriver(long id, int rating, double km) {
+        Driver driver = new Driver();
+        ReflectionTestUtils.setField(driver, "id", id);
+        driver.setAvailable(true);
+        driver.setRating(rating);
+        drivers.put(id, driver);
+        locationService.updateLocation(id, PICKUP_LAT + km * KM, PICKUP_LON, null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Which names the gazetteer answers and which go on to Nominatim, with the
+ * default edit budget. Nominatim is a mock that answers every name with 0, 0.
+ */
+class GazetteerLocationServiceTest {
+
+    private static final double[] NOMINATIM = { 0, 0 };
+
+    @TempDir
+    Path dir;
+
+    private NominatimLocationService nominatim;
+    private GazetteerLocationService gazetteer;
+
+    @BeforeEach
+    void loadGazetteer() throws IOException {
+        Path file = dir.resolve("places.csv");
+        Files.write(file, List.of(
+                "name,lat,lon",
+                "X Hall,30.0731,31.3472",
+                "\"Cairo International Airport, Terminal 3\",30.1113,31.4139"));
+        nominatim = mock(NominatimLocationService.class);
+        when(nominatim.getCoordinatesAsync(anyString())).thenReturn(CompletableFuture.completedFuture(NOMINATIM));
+        gazetteer = new GazetteerLocationService(nominatim, file.toString(), 1);
+        gazetteer.loadGazetteer();
+    }
+
+    @Test
+    void knownNamesAreAnsweredLocally() {
+        assertArrayEquals(new double[] { 30.0731, 31.3472 }, gazetteer.getCoordinatesAsync("  x HALL ").join());
+        assertArrayEquals(new double[] { 30.1113, 31.4139 },
+                gazetteer.getCoordinatesAsync("Cairo International Airprt, Terminal 3").join());
+        verify(nominatim, never()).getCoordinatesAsync(anyString());
+    }
+
+    @Test
+    void aShortNameOneEditFromAnotherPlaceGoesToNominatim() {
+        assertArrayEquals(NOMINATIM, gazetteer.getCoordinatesAsync("X Mall").join());
+        verify(nominatim).getCoordinatesAsync("X Mall");
+    }
+}
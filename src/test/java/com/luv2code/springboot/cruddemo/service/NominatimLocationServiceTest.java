@@ -0,0 +1,127 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.cache.GeocodeCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Coalescing of concurrent lookups, against a local stand-in for Nominatim
+ * that holds every request until the test releases it. Only "Tahrir Square"
+ * is a known place; any other name gets HTTP 500.
+ */
+class NominatimLocationServiceTest {
+
+    private static final double[] TAHRIR = { 30.0444, 31.2357 };
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch requestArrived = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExecutorService handlers;
+    private HttpServer server;
+    private NominatimLocationService nominatim;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        handlers = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(handlers);
+        server.createContext("/search", this::answer);
+        server.start();
+        nominatim = new NominatimLocationService(new GeocodeCache(100, 60, ""), 2000, 5000,
+                "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    @Test
+    void concurrentLookupsForOnePlaceShareOneRequest() throws InterruptedException {
+        List<CompletableFuture<double[]>> lookups = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            lookups.add(nominatim.getCoordinatesAsync(i % 2 == 0 ? "Tahrir Square" : "  tahrir   SQUARE"));
+        assertTrue(requestArrived.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        for (CompletableFuture<double[]> lookup : lookups)
+            assertArrayEquals(TAHRIR, lookup.join());
+        assertEquals(1, requests.get());
+
+        // later callers are answered from the cache
+        assertArrayEquals(TAHRIR, nominatim.getCoordinatesAsync("Tahrir Square").join());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void oneCallerCancellingDoesNotCancelTheOthers() throws InterruptedException {
+        CompletableFuture<double[]> cancelled = nominatim.getCoordinatesAsync("Tahrir Square");
+        CompletableFuture<double[]> waiting = nominatim.getCoordinatesAsync("Tahrir Square");
+        assertTrue(requestArrived.await(5, TimeUnit.SECONDS));
+        cancelled.cancel(true);
+        release.countDown();
+
+        assertArrayEquals(TAHRIR, waiting.join());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void aFailedLookupFailsEveryWaiterAndIsRetriedNextTime() throws InterruptedException {
+        CompletableFuture<double[]> first = nominatim.getCoordinatesAsync("Nowhere");
+        CompletableFuture<double[]> second = nominatim.getCoordinatesAsync("nowhere");
+        assertTrue(requestArrived.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(1, requests.get());
+
+        // failures are neither cached nor left in flight
+        CompletableFuture<double[]> retry = nominatim.getCoordinatesAsync("Nowhere");
+        assertThrows(CompletionException.class, retry::join);
+        assertEquals(2, requests.get());
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        requestArrived.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean known = exchange.getRequestURI().getQuery().toLowerCase().contains("tahrir");
+        byte[] body = (known ? "[{\"lat\": \"30.0444\", \"lon\": \"31.2357\"}]" : "[]")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(known ? 200 : 500, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
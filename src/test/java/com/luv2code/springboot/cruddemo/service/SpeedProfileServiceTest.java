@@ -0,0 +1,91 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.dao.TripDAO;
+import com.luv2code.springboot.cruddemo.dto.TripSpeedSample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Which committed trips the incremental refresh counts, with the database
+ * replaced by a list answering the keyset query. Every trip takes an hour
+ * from the same hour of the week, so the learned speed is the mean of theirs.
+ */
+class SpeedProfileServiceTest {
+
+    private static final double LAT = 30.0444;
+    private static final double LON = 31.2357;
+    private static final LocalDateTime COMPLETED = LocalDateTime.of(2026, 10, 12, 10, 0);
+
+    private final List<TripSpeedSample> committed = new ArrayList<>();
+    private SpeedProfileService speedProfileService;
+
+    @BeforeEach
+    void createService() {
+        TripDAO tripDAO = mock(TripDAO.class);
+        when(tripDAO.findCompletedSpeedSamples(any(), anyLong(), anyInt())).thenAnswer(call -> {
+            LocalDateTime completedAfter = call.getArgument(0);
+            long afterId = call.getArgument(1);
+            return committed.stream()
+                    .filter(sample -> sample.getCompletedAt().isAfter(completedAfter)
+                            || sample.getCompletedAt().equals(completedAfter) && sample.getTripId() > afterId)
+                    .sorted(Comparator.comparing(TripSpeedSample::getCompletedAt)
+                            .thenComparingLong(TripSpeedSample::getTripId))
+                    .limit(call.<Integer>getArgument(2))
+                    .toList();
+        });
+        // batches of two, so the reads also page
+        speedProfileService = new SpeedProfileService(tripDAO, 0.05, 1, 2, 300);
+    }
+
+    @Test
+    void lateCommitWithinTheOverlapIsCountedOnce() {
+        commit(1, COMPLETED, 20);
+        commit(2, COMPLETED.plusMinutes(2), 20);
+        commit(3, COMPLETED.plusMinutes(3), 20);
+        speedProfileService.refresh();
+        assertEquals(20, learnedSpeed(), 0.01);
+
+        // stamped before trip 3 but committed after it was read
+        commit(4, COMPLETED.plusMinutes(1), 60);
+        speedProfileService.refresh();
+        assertEquals(30, learnedSpeed(), 0.01);
+
+        speedProfileService.refresh();
+        assertEquals(30, learnedSpeed(), 0.01);
+    }
+
+    @Test
+    void tripsBehindTheOverlapAreCountedAfterARebuild() {
+        commit(1, COMPLETED, 20);
+        speedProfileService.refresh();
+
+        // imported history, a week back so it falls in the same hour of the week
+        commit(2, COMPLETED.minusWeeks(1), 50);
+        speedProfileService.refresh();
+        assertEquals(20, learnedSpeed(), 0.01);
+
+        speedProfileService.rebuildOnNextRefresh();
+        speedProfileService.refresh();
+        assertEquals(35, learnedSpeed(), 0.01);
+    }
+
+    private void commit(long tripId, LocalDateTime completedAt, double kmh) {
+        committed.add(new TripSpeedSample(tripId, LAT, LON, kmh, completedAt.minusHours(1), completedAt));
+    }
+
+    private double learnedSpeed() {
+        return speedProfileService.current().speedKmh(LAT, LON, COMPLETED.minusHours(1));
+    }
+}
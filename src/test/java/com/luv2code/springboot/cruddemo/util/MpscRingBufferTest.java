@@ -0,0 +1,124 @@
+package com.luv2code.springboot.cruddemo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Capacity, full and wraparound behaviour on one thread, then many producers
+ * against the single consumer.
+ */
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new MpscRingBuffer<>(1).capacity());
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(0));
+        assertThrows(NullPointerException.class, () -> new MpscRingBuffer<String>(4).offer(null));
+    }
+
+    @Test
+    void offersFailWhenFullUntilTheConsumerFreesASlot() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++)
+            assertTrue(buffer.offer(i));
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+        for (int i = 1; i <= 4; i++)
+            assertEquals(i, buffer.poll());
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void elementsStayInOrderAcrossManyLaps() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        // three in, two out, so the head and tail drift through every slot many times
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 3; i++) {
+                if (buffer.offer(next))
+                    next++;
+            }
+            for (int i = 0; i < 2; i++) {
+                Integer element = buffer.poll();
+                if (element != null)
+                    assertEquals(expected++, element);
+            }
+        }
+        for (Integer element = buffer.poll(); element != null; element = buffer.poll())
+            assertEquals(expected++, element);
+        assertEquals(next, expected);
+        assertTrue(next > 100);
+    }
+
+    @Test
+    void everyAcceptedOfferFromManyProducersIsPolledOnceInProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> accepted = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            accepted.add(executor.submit(() -> {
+                start.await();
+                int offered = 0;
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(new long[] { producer, offered }))
+                        offered++;
+                }
+                return offered;
+            }));
+        }
+
+        start.countDown();
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        int polled = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!allDone(accepted) || buffer.size() > 0) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                assertTrue(System.nanoTime() < deadline, "producers did not finish");
+                continue;
+            }
+            // each producer's accepted elements are numbered without gaps
+            assertEquals(lastSeen[(int) element[0]] + 1, element[1]);
+            lastSeen[(int) element[0]] = element[1];
+            polled++;
+        }
+        executor.shutdown();
+
+        int total = 0;
+        for (Future<Integer> future : accepted)
+            total += future.get();
+        assertEquals(total, polled);
+        assertNull(buffer.poll());
+    }
+
+    private static boolean allDone(List<Future<Integer>> futures) {
+        return futures.stream().allMatch(Future::isDone);
+    }
+}